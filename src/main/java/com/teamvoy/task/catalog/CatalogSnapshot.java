@@ -0,0 +1,56 @@
+package com.teamvoy.task.catalog;
+
+import lombok.Getter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.zip.GZIPOutputStream;
+
+@Getter
+public final class CatalogSnapshot {
+    private final long version;
+    private final int size;
+    private final String etag;
+    private final byte[] json;
+    private final byte[] gzip;
+
+    private CatalogSnapshot(long version, int size, String etag, byte[] json, byte[] gzip) {
+        this.version = version;
+        this.size = size;
+        this.etag = etag;
+        this.json = json;
+        this.gzip = gzip;
+    }
+
+    // The arrays are never handed to anything that writes to them, so they are shared rather than copied.
+    public static CatalogSnapshot of(long version, String etag, Collection<byte[]> encodedProducts) {
+        int length = 2 + Math.max(0, encodedProducts.size() - 1);
+        for (byte[] product : encodedProducts) {
+            length += product.length;
+        }
+        byte[] json = new byte[length];
+        int position = 0;
+        json[position++] = '[';
+        for (byte[] product : encodedProducts) {
+            if (position > 1) {
+                json[position++] = ',';
+            }
+            System.arraycopy(product, 0, json, position, product.length);
+            position += product.length;
+        }
+        json[position] = ']';
+        return new CatalogSnapshot(version, encodedProducts.size(), etag, json, gzip(json));
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, json.length / 4));
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+}
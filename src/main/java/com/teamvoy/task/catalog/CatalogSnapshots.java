@@ -0,0 +1,146 @@
+package com.teamvoy.task.catalog;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teamvoy.task.event.ProductChangedEvent;
+import com.teamvoy.task.model.Product;
+import com.teamvoy.task.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pre-encoded catalog served to GET /api/products. Product events only mark ids as changed; a background
+ * refresher re-reads them and swaps in a new snapshot at most once per interval, so checkouts never pay for
+ * re-encoding and gzipping the catalog and a burst of changes costs one rebuild.
+ */
+@Slf4j
+@Component
+public class CatalogSnapshots {
+    private static final int LOAD_BATCH = 1000;
+
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+    private final long refreshIntervalMs;
+    private final long epoch = System.currentTimeMillis();
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService refresher;
+
+    // Writers serialize on this object; readers only ever touch the reference.
+    private final NavigableMap<Long, byte[]> encoded = new TreeMap<>();
+    private final AtomicReference<CatalogSnapshot> current;
+    private long version;
+
+    @Autowired
+    public CatalogSnapshots(ProductRepository productRepository, ObjectMapper objectMapper,
+                            @Value("${teamvoy.catalog.refresh-interval-ms:200}") long refreshIntervalMs) {
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+        this.refreshIntervalMs = refreshIntervalMs;
+        this.current = new AtomicReference<>(build());
+    }
+
+    @PostConstruct
+    public void start() {
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(this::refreshQuietly, refreshIntervalMs, refreshIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (refresher == null) {
+            return;
+        }
+        refresher.shutdown();
+        refresher.awaitTermination(refreshIntervalMs * 10, TimeUnit.MILLISECONDS);
+    }
+
+    public CatalogSnapshot current() {
+        return current.get();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        encoded.clear();
+        long after = 0;
+        List<Product> batch;
+        do {
+            batch = productRepository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, LOAD_BATCH));
+            batch.forEach(product -> encoded.put(product.getId(), encode(product)));
+            if (!batch.isEmpty()) {
+                after = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == LOAD_BATCH);
+        current.set(build());
+        log.info("Catalog snapshot built with {} products", encoded.size());
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        changed.addAll(event.getProductIds());
+    }
+
+    // Changed rows are re-read under the lock so a late event can never overwrite a newer row with an older copy;
+    // only those rows are re-encoded, the rest of the catalog is reused byte for byte. An id marked again while
+    // this runs stays marked for the next round.
+    public synchronized void refresh() {
+        Set<Long> ids = new HashSet<>();
+        for (Iterator<Long> iterator = changed.iterator(); iterator.hasNext(); ) {
+            ids.add(iterator.next());
+            iterator.remove();
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        Set<Long> missing = new HashSet<>(ids);
+        try {
+            for (Product product : productRepository.findAllById(ids)) {
+                encoded.put(product.getId(), encode(product));
+                missing.remove(product.getId());
+            }
+        } catch (RuntimeException e) {
+            changed.addAll(ids);
+            throw e;
+        }
+        missing.forEach(encoded::remove);
+        current.set(build());
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.error("Catalog snapshot refresh failed, changes will be retried: {}", e.getMessage());
+        }
+    }
+
+    private CatalogSnapshot build() {
+        version++;
+        return CatalogSnapshot.of(version, "\"s" + epoch + "-" + version + "\"", encoded.values());
+    }
+
+    private byte[] encode(Product product) {
+        try {
+            return objectMapper.writeValueAsBytes(product);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot encode product " + product.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.teamvoy.task.catalog;
+
+import com.teamvoy.task.dto.goodsDto.ProductRangeQuery;
+import com.teamvoy.task.dto.page.CursorPage;
+import com.teamvoy.task.event.ProductChangedEvent;
+import com.teamvoy.task.exception.InvalidCursorException;
+import com.teamvoy.task.model.Product;
+import com.teamvoy.task.money.Money;
+import com.teamvoy.task.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+public class ProductRangeIndex {
+    private static final int LOAD_BATCH = 1000;
+    private static final int PRICE = 0;
+    private static final int AMOUNT = 1;
+    private static final int VERSION = 2;
+
+    private final ProductRepository productRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, long[]> entries = new HashMap<>();
+    // Version each removed product had when it left the index (MAX_VALUE if it was never indexed here).
+    private final Map<Long, Long> tombstones = new HashMap<>();
+    private final SortedLongIndex prices = new SortedLongIndex();
+    private final SortedLongIndex amounts = new SortedLongIndex();
+
+    @Autowired
+    public ProductRangeIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long after = 0;
+        int loaded = 0;
+        List<Product> batch;
+        do {
+            batch = productRepository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, LOAD_BATCH));
+            batch.forEach(this::index);
+            loaded += batch.size();
+            if (!batch.isEmpty()) {
+                after = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == LOAD_BATCH);
+        log.info("Product range index loaded with {} products", loaded);
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getKind() == ProductChangedEvent.Kind.REMOVED) {
+            event.getProductIds().forEach(this::remove);
+        } else if (!event.getProducts().isEmpty()) {
+            event.getProducts().forEach(this::index);
+        } else {
+            productRepository.findAllById(event.getProductIds()).forEach(this::index);
+        }
+    }
+
+    /**
+     * Events are delivered after commit on whichever thread committed, so copies of one product can arrive
+     * out of order; a copy whose version is not newer than the indexed one is dropped, and so is a copy
+     * that is not newer than the version the product was removed at.
+     */
+    public void index(Product product) {
+        if (product.getId() == null) {
+            return;
+        }
+        long[] entry = {product.getPrice(), product.getAmount(), product.getVersion()};
+        lock.writeLock().lock();
+        try {
+            long[] previous = entries.get(product.getId());
+            if (previous != null && previous[VERSION] >= entry[VERSION]) {
+                return;
+            }
+            Long removedAt = tombstones.get(product.getId());
+            if (removedAt != null && removedAt >= entry[VERSION]) {
+                return;
+            }
+            entries.put(product.getId(), entry);
+            if (previous != null) {
+                prices.remove(previous[PRICE], product.getId());
+                amounts.remove(previous[AMOUNT], product.getId());
+            }
+            prices.add(entry[PRICE], product.getId());
+            amounts.add(entry[AMOUNT], product.getId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Product ids are never reused, so a tombstone is kept for good; it costs one map entry per deletion.
+    public void remove(long productId) {
+        lock.writeLock().lock();
+        try {
+            long[] previous = entries.remove(productId);
+            if (previous != null) {
+                prices.remove(previous[PRICE], productId);
+                amounts.remove(previous[AMOUNT], productId);
+            }
+            tombstones.put(productId, previous != null ? previous[VERSION] : Long.MAX_VALUE);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Walks the index the query sorts by from the lower bound (or the cursor) and stops after
+     * {@code limit} matches, so the cost is O(log n + k) when every filter is on the sort key.
+     * Filters on the other key are checked per entry while walking.
+     */
+    public CursorPage<Long> scan(ProductRangeQuery query, int limit) {
+        long minPrice = query.getMinPrice() == null ? Long.MIN_VALUE : Money.fromDecimal(query.getMinPrice());
+        long maxPrice = query.getMaxPrice() == null ? Long.MAX_VALUE : Money.fromDecimal(query.getMaxPrice());
+        long minAmount = query.isInStock() ? 1 : Long.MIN_VALUE;
+        long maxAmount = query.getAmountBelow() == null ? Long.MAX_VALUE : query.getAmountBelow() - 1;
+        boolean byAmount = query.sortsByAmount();
+        long[] cursor = query.getCursor() == null ? null : parseCursor(query.getCursor());
+
+        lock.readLock().lock();
+        try {
+            SortedLongIndex index = byAmount ? amounts : prices;
+            long from = byAmount ? minAmount : minPrice;
+            long to = byAmount ? maxAmount : maxPrice;
+            int position = index.ceiling(from);
+            if (cursor != null) {
+                position = Math.max(position, index.higher(cursor[0], cursor[1]));
+            }
+
+            List<Long> ids = new ArrayList<>(limit);
+            String nextCursor = null;
+            for (; position < index.size() && index.keyAt(position) <= to; position++) {
+                long[] entry = entries.get(index.idAt(position));
+                if (entry[PRICE] < minPrice || entry[PRICE] > maxPrice
+                        || entry[AMOUNT] < minAmount || entry[AMOUNT] > maxAmount) {
+                    continue;
+                }
+                if (ids.size() == limit) {
+                    long lastId = ids.get(limit - 1);
+                    long[] last = entries.get(lastId);
+                    nextCursor = (byAmount ? last[AMOUNT] : last[PRICE]) + ":" + lastId;
+                    break;
+                }
+                ids.add(index.idAt(position));
+            }
+            return new CursorPage<>(ids, nextCursor);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static long[] parseCursor(String cursor) {
+        int separator = cursor.indexOf(':');
+        try {
+            return new long[]{Long.parseLong(cursor.substring(0, separator)), Long.parseLong(cursor.substring(separator + 1))};
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Invalid cursor '" + cursor + "'");
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.teamvoy.task.catalog;
+
+import com.teamvoy.task.event.ProductChangedEvent;
+import com.teamvoy.task.model.Product;
+import com.teamvoy.task.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+public class ProductSearchIndex {
+    private static final int LOAD_BATCH = 1000;
+    private static final double PREFIX_SCORE = 2.0;
+
+    private final ProductRepository productRepository;
+    private final double minSimilarity;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, String> names = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final NavigableMap<String, Set<Long>> prefixes = new TreeMap<>();
+
+    @Autowired
+    public ProductSearchIndex(ProductRepository productRepository,
+                              @Value("${teamvoy.search.min-similarity:0.34}") double minSimilarity) {
+        this.productRepository = productRepository;
+        this.minSimilarity = minSimilarity;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long after = 0;
+        int loaded = 0;
+        List<Product> batch;
+        do {
+            batch = productRepository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, LOAD_BATCH));
+            batch.forEach(this::index);
+            loaded += batch.size();
+            if (!batch.isEmpty()) {
+                after = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == LOAD_BATCH);
+        log.info("Product search index loaded with {} products", loaded);
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        switch (event.getKind()) {
+            case SAVED:
+                event.getProducts().forEach(this::index);
+                break;
+            case REMOVED:
+                event.getProductIds().forEach(this::remove);
+                break;
+            default:
+                break;
+        }
+    }
+
+    public void index(Product product) {
+        if (product.getId() == null || product.getName() == null) {
+            return;
+        }
+        String name = normalize(product.getName());
+        lock.writeLock().lock();
+        try {
+            String previous = names.put(product.getId(), name);
+            if (name.equals(previous)) {
+                return;
+            }
+            if (previous != null) {
+                unlink(product.getId(), previous);
+            }
+            for (String gram : trigrams(name)) {
+                postings.computeIfAbsent(gram, key -> new HashSet<>()).add(product.getId());
+            }
+            for (String key : prefixKeys(name)) {
+                prefixes.computeIfAbsent(key, k -> new HashSet<>()).add(product.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long productId) {
+        lock.writeLock().lock();
+        try {
+            String previous = names.remove(productId);
+            if (previous != null) {
+                unlink(productId, previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return names.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ranked ids: name or word prefix matches first, then trigram similarity (shared grams / query grams).
+    public List<Long> search(String query, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Map<Long, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (Set<Long> ids : prefixes.subMap(q, true, q + Character.MAX_VALUE, false).values()) {
+                ids.forEach(id -> scores.put(id, PREFIX_SCORE));
+            }
+            Set<String> queryGrams = trigrams(q);
+            Map<Long, Integer> shared = new HashMap<>();
+            for (String gram : queryGrams) {
+                Set<Long> ids = postings.get(gram);
+                if (ids != null) {
+                    ids.forEach(id -> shared.merge(id, 1, Integer::sum));
+                }
+            }
+            shared.forEach((id, count) -> {
+                double similarity = (double) count / queryGrams.size();
+                if (similarity >= minSimilarity) {
+                    scores.merge(id, similarity, Math::max);
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        List<Long> result = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i = 0; i < ranked.size() && i < limit; i++) {
+            result.add(ranked.get(i).getKey());
+        }
+        return result;
+    }
+
+    private void unlink(long productId, String name) {
+        for (String gram : trigrams(name)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids != null && ids.remove(productId) && ids.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+        for (String key : prefixKeys(name)) {
+            Set<Long> ids = prefixes.get(key);
+            if (ids != null && ids.remove(productId) && ids.isEmpty()) {
+                prefixes.remove(key);
+            }
+        }
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    // Words are padded the way pg_trgm does it ("  w", " wo", ..., "rd "), so word starts weigh in.
+    static Set<String> trigrams(String normalized) {
+        Set<String> grams = new HashSet<>();
+        for (String word : normalized.split(" ")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.add(padded.substring(i, i + 3));
+            }
+        }
+        return grams;
+    }
+
+    private static Set<String> prefixKeys(String normalized) {
+        Set<String> keys = new HashSet<>();
+        keys.add(normalized);
+        keys.addAll(Arrays.asList(normalized.split(" ")));
+        return keys;
+    }
+}
@@ -0,0 +1,85 @@
+package com.teamvoy.task.catalog;
+
+import java.util.Arrays;
+
+/**
+ * Entries ordered by (key, id), kept in two parallel primitive arrays so a range scan is a
+ * binary search followed by a walk over contiguous memory. Not thread-safe.
+ */
+final class SortedLongIndex {
+    private long[] keys = new long[16];
+    private long[] ids = new long[16];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    long keyAt(int position) {
+        return keys[position];
+    }
+
+    long idAt(int position) {
+        return ids[position];
+    }
+
+    void add(long key, long id) {
+        int position = position(key, id);
+        if (position >= 0) {
+            return;
+        }
+        position = -position - 1;
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        System.arraycopy(keys, position, keys, position + 1, size - position);
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        keys[position] = key;
+        ids[position] = id;
+        size++;
+    }
+
+    void remove(long key, long id) {
+        int position = position(key, id);
+        if (position < 0) {
+            return;
+        }
+        System.arraycopy(keys, position + 1, keys, position, size - position - 1);
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        size--;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    // First position whose key is >= the given key.
+    int ceiling(long key) {
+        int position = position(key, Long.MIN_VALUE);
+        return position >= 0 ? position : -position - 1;
+    }
+
+    // First position strictly after the given entry, whether or not the entry is still present.
+    int higher(long key, long id) {
+        int position = position(key, id);
+        return position >= 0 ? position + 1 : -position - 1;
+    }
+
+    private int position(long key, long id) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int compared = keys[mid] != key ? Long.compare(keys[mid], key) : Long.compare(ids[mid], id);
+            if (compared < 0) {
+                low = mid + 1;
+            } else if (compared > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+}
@@ -25,6 +25,7 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
 import javax.validation.Valid;
+import java.util.List;
 
 @RestController
 @RequestMapping("/auth")
@@ -60,7 +61,7 @@ public class Auth {
                     userDto,
                     roleService.readById(2)
             ));
-            UserResponse userResponse = new UserResponse(user);
+            UserResponse userResponse = new UserResponse(user, List.of());
             log.info("New User has been created - {}", userResponse);
             return ResponseEntity.ok().body(userResponse);
         } catch (NullEntityReferenceException e) {
@@ -0,0 +1,46 @@
+package com.teamvoy.task.controller;
+
+import com.teamvoy.task.service.ExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("api")
+public class ExportController {
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private ExportService exportService;
+
+    @Autowired
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @GetMapping("/goods/export")
+    @PreAuthorize("@check.isManager()")
+    public ResponseEntity<StreamingResponseBody> exportGoods() {
+        return ndjson(exportService::exportProducts);
+    }
+
+    @GetMapping("/users/export")
+    @PreAuthorize("@check.isManager()")
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        return ndjson(exportService::exportUsers);
+    }
+
+    @GetMapping("/orders/export")
+    @PreAuthorize("@check.isManager()")
+    public ResponseEntity<StreamingResponseBody> exportOrders() {
+        return ndjson(exportService::exportOrders);
+    }
+
+    private ResponseEntity<StreamingResponseBody> ndjson(StreamingResponseBody body) {
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+}
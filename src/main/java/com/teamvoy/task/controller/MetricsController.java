@@ -0,0 +1,55 @@
+package com.teamvoy.task.controller;
+
+import com.teamvoy.task.catalog.ProductCache;
+import com.teamvoy.task.expiry.OrderExpiryWheel;
+import com.teamvoy.task.journal.OrderJournal;
+import com.teamvoy.task.retry.RetryOnConflictAspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("api/metrics")
+public class MetricsController {
+    private ProductCache productCache;
+    private RetryOnConflictAspect retryOnConflictAspect;
+    private OrderExpiryWheel orderExpiryWheel;
+    private OrderJournal orderJournal;
+
+    @Autowired
+    public MetricsController(ProductCache productCache, RetryOnConflictAspect retryOnConflictAspect,
+                             OrderExpiryWheel orderExpiryWheel, OrderJournal orderJournal) {
+        this.productCache = productCache;
+        this.retryOnConflictAspect = retryOnConflictAspect;
+        this.orderExpiryWheel = orderExpiryWheel;
+        this.orderJournal = orderJournal;
+    }
+
+    @GetMapping("/product-cache")
+    @PreAuthorize("@check.isManager()")
+    public Map<String, Object> productCache() {
+        return productCache.stats();
+    }
+
+    @GetMapping("/retries")
+    @PreAuthorize("@check.isManager()")
+    public Map<String, Map<String, Long>> retries() {
+        return retryOnConflictAspect.stats();
+    }
+
+    @GetMapping("/order-expiry")
+    @PreAuthorize("@check.isManager()")
+    public Map<String, Long> orderExpiry() {
+        return orderExpiryWheel.stats();
+    }
+
+    @GetMapping("/order-journal")
+    @PreAuthorize("@check.isManager()")
+    public Map<String, Long> orderJournal() {
+        return orderJournal.stats();
+    }
+}
@@ -2,15 +2,23 @@ package com.teamvoy.task.controller;
 
 import com.teamvoy.task.dto.order.OrderRequest;
 import com.teamvoy.task.dto.order.OrderResponse;
-import com.teamvoy.task.model.Order;
+import com.teamvoy.task.dto.order.OrderSearchQuery;
+import com.teamvoy.task.dto.order.PaymentResult;
+import com.teamvoy.task.dto.page.CursorPage;
+import com.teamvoy.task.idempotency.IdempotencyStore;
+import com.teamvoy.task.intake.OrderIntakeQueue;
+import com.teamvoy.task.model.OrderView;
 import com.teamvoy.task.model.User;
 import com.teamvoy.task.service.OrderService;
+import com.teamvoy.task.service.OrderViewService;
 import com.teamvoy.task.service.UserService;
+import com.teamvoy.task.version.EntityVersions;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
 import java.util.List;
@@ -19,53 +27,101 @@ import java.util.stream.Collectors;
 @RestController
 @RequestMapping("api/orders")
 public class OrderController {
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     private OrderService orderService;
     private UserService userService;
+    private EntityVersions entityVersions;
+    private OrderIntakeQueue orderIntakeQueue;
+    private IdempotencyStore idempotencyStore;
+    private OrderViewService orderViewService;
 
     @Autowired
-    public OrderController(OrderService orderService, UserService userService) {
+    public OrderController(OrderService orderService, UserService userService, EntityVersions entityVersions,
+                           OrderIntakeQueue orderIntakeQueue, IdempotencyStore idempotencyStore,
+                           OrderViewService orderViewService) {
         this.orderService = orderService;
+        this.orderViewService = orderViewService;
         this.userService = userService;
+        this.entityVersions = entityVersions;
+        this.orderIntakeQueue = orderIntakeQueue;
+        this.idempotencyStore = idempotencyStore;
     }
 
     @GetMapping("/all")
     @PreAuthorize("@check.isManager()")
-    public List<OrderResponse> getAll() {
-        return orderService.getAll().stream()
-                .map(OrderResponse::new)
-                .collect(Collectors.toList());
+    public CursorPage<OrderResponse> getAll(@RequestParam(defaultValue = "0") long after,
+                                            @RequestParam(defaultValue = CursorPage.DEFAULT_LIMIT) int limit) {
+        return orderViewService.getPage(after, limit).map(OrderResponse::new);
+    }
+
+    @GetMapping("/search")
+    @PreAuthorize("@check.isManager()")
+    public CursorPage<OrderResponse> search(OrderSearchQuery query,
+                                            @RequestParam(defaultValue = CursorPage.DEFAULT_LIMIT) int limit) {
+        return orderViewService.search(query, limit).map(OrderResponse::new);
     }
 
     @GetMapping()
     @PreAuthorize("@check.isManager() or @check.accessForOrder(#id)")
-    public OrderResponse getById(@RequestParam long id) {
-        return new OrderResponse(orderService.readById(id));
+    public ResponseEntity<OrderResponse> getById(@RequestParam long id, WebRequest request) {
+        if (entityVersions.notModified(request, entityVersions.cachedOrderTag(id))) {
+            return null;
+        }
+        long loadToken = entityVersions.loadToken();
+        OrderView view = orderViewService.readById(id);
+        String etag = entityVersions.orderTag(view, loadToken);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(new OrderResponse(view));
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     @PreAuthorize("@check.isManager() or @check.isOwner(#userId)")
     public OrderResponse create(@RequestBody @Valid List<OrderRequest> orderDto,
-                                @RequestParam long userId) {
-        User user = userService.readById(userId);
-        Order order = orderService.prepareOrder(orderDto, user);
-
-        return new OrderResponse(orderService.create(order));
+                                @RequestParam long userId,
+                                @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        String fingerprint = orderDto.stream()
+                .map(orderRequest -> orderRequest.getProductId() + "x" + orderRequest.getAmount())
+                .collect(Collectors.joining(","));
+        return idempotencyStore.execute("create-order:" + userId, idempotencyKey, fingerprint, () -> {
+            User user = userService.readById(userId);
+            if (orderIntakeQueue.isEnabled()) {
+                return new OrderResponse(orderIntakeQueue.place(orderDto, user));
+            }
+            // One transaction, so a failed save also gives back the stock that was reserved for it.
+            return new OrderResponse(orderService.placeOrder(orderDto, user));
+        });
     }
 
     @GetMapping("/users")
     @ResponseStatus(HttpStatus.ACCEPTED)
     @PreAuthorize("@check.confirmAccessOwnerOrManager(#userId)")
     public List<OrderResponse> findByUserId(@RequestParam long userId) {
-        return orderService.findByUserId(userId).stream().map(OrderResponse::new).collect(Collectors.toList());
+        return orderViewService.findByUserId(userId).stream().map(OrderResponse::new).collect(Collectors.toList());
     }
 
     @PostMapping("/paying")
     @ResponseStatus(HttpStatus.ACCEPTED)
     @PreAuthorize("@check.accessForOrder(#orderId)")
-    public ResponseEntity<String> paying(@RequestParam long orderId) {
-        orderService.paidTheOrder(orderId);
-        return ResponseEntity.accepted().body("Your order with id " + orderId + " has been paid");
+    public ResponseEntity<String> paying(@RequestParam long orderId,
+                                         @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        String message = idempotencyStore.execute("pay-order:" + orderId, idempotencyKey, "", () -> {
+            orderService.paidTheOrder(orderId);
+            return "Your order with id " + orderId + " has been paid";
+        });
+        return ResponseEntity.accepted().body(message);
+    }
+
+    @PostMapping("/paying/batch")
+    @PreAuthorize("@check.isManager() or @check.isOwner(#userId)")
+    public List<PaymentResult> payingBatch(@RequestParam long userId, @RequestBody List<Long> orderIds,
+                                           @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        String fingerprint = orderIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        return idempotencyStore.execute("pay-orders:" + userId, idempotencyKey, fingerprint,
+                () -> orderService.payOrders(userId, orderIds));
     }
 
     @PutMapping
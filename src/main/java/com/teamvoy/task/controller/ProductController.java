@@ -1,38 +1,113 @@
 package com.teamvoy.task.controller;
 
+import com.teamvoy.task.catalog.CatalogSnapshot;
+import com.teamvoy.task.catalog.CatalogSnapshots;
 import com.teamvoy.task.dto.goodsDto.GoodsRequest;
 import com.teamvoy.task.dto.goodsDto.GoodsTransformer;
+import com.teamvoy.task.dto.goodsDto.ImportReport;
+import com.teamvoy.task.dto.goodsDto.ProductRangeQuery;
+import com.teamvoy.task.dto.page.CursorPage;
 import com.teamvoy.task.model.Product;
+import com.teamvoy.task.retry.RetryOnConflict;
+import com.teamvoy.task.service.ProductImportService;
 import com.teamvoy.task.service.ProductService;
+import com.teamvoy.task.version.EntityVersions;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
 @RequestMapping("api/goods")
 public class ProductController {
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv");
+
     private ProductService productService;
+    private ProductImportService productImportService;
+    private EntityVersions entityVersions;
+    private CatalogSnapshots catalogSnapshots;
 
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductImportService productImportService,
+                             EntityVersions entityVersions, CatalogSnapshots catalogSnapshots) {
         this.productService = productService;
+        this.productImportService = productImportService;
+        this.entityVersions = entityVersions;
+        this.catalogSnapshots = catalogSnapshots;
     }
 
     @GetMapping
     @PreAuthorize("@check.isManager() or @check.isClient()")
-    public List<Product> getAll() {
-        return productService.getAll();
+    public ResponseEntity<CursorPage<Product>> getAll(@RequestParam(defaultValue = "0") long after,
+                                                      @RequestParam(defaultValue = CursorPage.DEFAULT_LIMIT) int limit,
+                                                      ProductRangeQuery rangeQuery, WebRequest request) {
+        String variant = rangeQuery.isFiltered() ? rangeQuery.variant() + ":" + limit : after + ":" + limit;
+        if (entityVersions.notModified(request, entityVersions.cachedPageTag(variant))) {
+            return null;
+        }
+        long loadToken = entityVersions.loadToken();
+        CursorPage<Product> page = rangeQuery.isFiltered()
+                ? productService.findInRange(rangeQuery, limit)
+                : productService.getPage(after, limit);
+        String etag = entityVersions.pageTag(variant, page.getItems(), loadToken);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(page);
+    }
+
+    @GetMapping("/snapshot")
+    @PreAuthorize("@check.isManager() or @check.isClient()")
+    public void getSnapshot(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                            WebRequest request, HttpServletResponse response) throws IOException {
+        CatalogSnapshot snapshot = catalogSnapshots.current();
+        if (request.checkNotModified(snapshot.getEtag())) {
+            return;
+        }
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        byte[] body = gzip ? snapshot.getGzip() : snapshot.getJson();
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    @GetMapping("/search")
+    @PreAuthorize("@check.isManager() or @check.isClient()")
+    public List<Product> search(@RequestParam("q") String query,
+                                @RequestParam(defaultValue = "10") int limit) {
+        return productService.search(query, limit);
     }
 
     @GetMapping("/{id}")
     @PreAuthorize("@check.isManager() or @check.isClient()")
-    public Product getById(@PathVariable("id") long id) {
-        return productService.readById(id);
+    public ResponseEntity<Product> getById(@PathVariable("id") long id, WebRequest request) {
+        if (entityVersions.notModified(request, entityVersions.cachedProductTag(id))) {
+            return null;
+        }
+        long loadToken = entityVersions.loadToken();
+        Product product = productService.readById(id);
+        String etag = entityVersions.productTag(product, loadToken);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(product);
     }
 
     @PostMapping
@@ -42,9 +117,21 @@ public class ProductController {
         return productService.create(GoodsTransformer.convertToEntity(goodsDto));
     }
 
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @PreAuthorize("@check.isManager()")
+    public ImportReport importGoods(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                    HttpServletRequest request) throws IOException {
+        Reader reader = new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8);
+        if (MediaType.parseMediaType(contentType).isCompatibleWith(TEXT_CSV)) {
+            return productImportService.importCsv(reader);
+        }
+        return productImportService.importNdjson(reader);
+    }
+
     @PutMapping()
     @ResponseStatus(HttpStatus.ACCEPTED)
     @PreAuthorize("@check.isManager()")
+    @RetryOnConflict
     public Product update(@RequestParam long id, @RequestBody @Valid GoodsRequest goodsDto) {
         Product product = productService.readById(id);
         return productService.update(GoodsTransformer.convertToEntityForUpdate(goodsDto, product));
@@ -0,0 +1,50 @@
+package com.teamvoy.task.controller;
+
+import com.teamvoy.task.dto.report.SalesTotal;
+import com.teamvoy.task.service.SalesReportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("api/reports")
+public class ReportController {
+    private SalesReportService salesReportService;
+
+    @Autowired
+    public ReportController(SalesReportService salesReportService) {
+        this.salesReportService = salesReportService;
+    }
+
+    @GetMapping("/products")
+    @PreAuthorize("@check.isManager()")
+    public List<SalesTotal> products(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return salesReportService.salesByProduct(from, to);
+    }
+
+    @GetMapping("/users")
+    @PreAuthorize("@check.isManager()")
+    public List<SalesTotal> users(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return salesReportService.salesByUser(from, to);
+    }
+
+    @GetMapping("/days")
+    @PreAuthorize("@check.isManager()")
+    public List<SalesTotal> days(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return salesReportService.salesByDay(from, to);
+    }
+
+    @PostMapping("/rebuild")
+    @PreAuthorize("@check.isManager()")
+    public String rebuild() {
+        salesReportService.rebuild();
+        return "Sales aggregates have been rebuilt";
+    }
+}
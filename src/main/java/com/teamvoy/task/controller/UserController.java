@@ -1,9 +1,13 @@
 package com.teamvoy.task.controller;
 
+import com.teamvoy.task.dto.page.CursorPage;
 import com.teamvoy.task.dto.userDto.UserRequest;
 import com.teamvoy.task.dto.userDto.UserResponse;
 import com.teamvoy.task.dto.userDto.UserTransformer;
+import com.teamvoy.task.model.OrderView;
 import com.teamvoy.task.model.User;
+import com.teamvoy.task.retry.RetryOnConflict;
+import com.teamvoy.task.service.OrderViewService;
 import com.teamvoy.task.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -13,38 +17,46 @@ import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("api/users")
 public class UserController {
     private UserService userService;
+    private OrderViewService orderViewService;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, OrderViewService orderViewService) {
         this.userService = userService;
+        this.orderViewService = orderViewService;
     }
 
     @GetMapping("/all")
     @PreAuthorize("@check.isManager()")
-    public List<UserResponse> getAll() {
-        return userService.getAll().stream()
-                .map(UserResponse::new)
-                .collect(Collectors.toList());
+    public CursorPage<UserResponse> getAll(@RequestParam(defaultValue = "0") long after,
+                                           @RequestParam(defaultValue = CursorPage.DEFAULT_LIMIT) int limit) {
+        CursorPage<User> page = userService.getPage(after, limit);
+        Map<Long, List<OrderView>> orders = orderViewService.findByUserIds(
+                page.getItems().stream().map(User::getId).filter(Objects::nonNull).collect(Collectors.toList()));
+        return page.map(user -> new UserResponse(user, orders.getOrDefault(user.getId(), List.of())));
     }
 
     @GetMapping()
     @PreAuthorize("@check.confirmAccessOwnerOrManager(#id)")
     public UserResponse getById(@RequestParam long id) {
-        return new UserResponse(userService.readById(id));
+        return new UserResponse(userService.readById(id), orderViewService.findByUserId(id));
     }
 
     @PutMapping()
     @ResponseStatus(HttpStatus.ACCEPTED)
     @PreAuthorize("@check.confirmAccessOwnerOrManager(#id)")
+    @RetryOnConflict
     public UserResponse update(@RequestParam long id, @RequestBody @Valid UserRequest userDto) {
         User user = userService.readById(id);
-        return new UserResponse(userService.update(UserTransformer.convertToEntityForUpdate(userDto, user)));
+        return new UserResponse(userService.update(UserTransformer.convertToEntityForUpdate(userDto, user)),
+                orderViewService.findByUserId(id));
     }
 
     @DeleteMapping
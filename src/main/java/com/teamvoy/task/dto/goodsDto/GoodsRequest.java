@@ -1,5 +1,7 @@
 package com.teamvoy.task.dto.goodsDto;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.teamvoy.task.money.MoneyDeserializer;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -8,12 +10,13 @@ import lombok.Setter;
 public class GoodsRequest {
     private String name;
     private int amount;
-    private double price;
+    @JsonDeserialize(using = MoneyDeserializer.class)
+    private long price;
 
     public GoodsRequest() {
     }
 
-    public GoodsRequest(String name, int amount, double price) {
+    public GoodsRequest(String name, int amount, long price) {
         this.name = name;
         this.amount = amount;
         this.price = price;
@@ -0,0 +1,37 @@
+package com.teamvoy.task.dto.goodsDto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+public class ImportReport {
+    public static final int MAX_REPORTED_ERRORS = 100;
+
+    private long rows;
+    private long created;
+    private long merged;
+    private long failed;
+    private List<RowError> errors = new ArrayList<>();
+
+    public void rejected(long line, String message) {
+        failed++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new RowError(line, message));
+        }
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String message;
+    }
+}
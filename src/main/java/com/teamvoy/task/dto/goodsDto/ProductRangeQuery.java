@@ -0,0 +1,33 @@
+package com.teamvoy.task.dto.goodsDto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+public class ProductRangeQuery {
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Long amountBelow;
+    private boolean inStock;
+    private String sort;
+    private String cursor;
+
+    public boolean isFiltered() {
+        return minPrice != null || maxPrice != null || amountBelow != null || inStock || sort != null || cursor != null;
+    }
+
+    // Identifies the result set for ETags: two queries with the same variant return the same page.
+    public String variant() {
+        return "r:" + minPrice + ":" + maxPrice + ":" + amountBelow + ":" + inStock + ":" + sort + ":" + cursor;
+    }
+
+    public boolean sortsByAmount() {
+        if (sort != null) {
+            return "amount".equalsIgnoreCase(sort);
+        }
+        return amountBelow != null && minPrice == null && maxPrice == null;
+    }
+}
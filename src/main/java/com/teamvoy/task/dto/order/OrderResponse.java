@@ -1,8 +1,11 @@
 package com.teamvoy.task.dto.order;
 
 import com.teamvoy.task.dto.userDto.UserResponseForOrder;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.teamvoy.task.model.Order;
+import com.teamvoy.task.model.OrderView;
 import com.teamvoy.task.model.OrderedProduct;
+import com.teamvoy.task.money.MoneySerializer;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -16,7 +19,8 @@ public class OrderResponse {
     private LocalDateTime localDateTime;
     private UserResponseForOrder user;
     private List<OrderedProduct> goods;
-    private double sum;
+    @JsonSerialize(using = MoneySerializer.class)
+    private long sum;
     private String status;
 
     public OrderResponse() {
@@ -32,4 +36,13 @@ public class OrderResponse {
             this.status = order.getStatus().toString();
         }
     }
+
+    public OrderResponse(OrderView view) {
+        this.id = view.getOrderId();
+        this.localDateTime = view.getLocalDateTime();
+        this.user = new UserResponseForOrder(view);
+        this.goods = view.lines();
+        this.sum = view.getSum();
+        this.status = view.getStatus().toString();
+    }
 }
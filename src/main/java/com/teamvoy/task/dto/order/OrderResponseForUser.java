@@ -1,7 +1,10 @@
 package com.teamvoy.task.dto.order;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.teamvoy.task.model.Order;
+import com.teamvoy.task.model.OrderView;
 import com.teamvoy.task.model.OrderedProduct;
+import com.teamvoy.task.money.MoneySerializer;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -15,7 +18,8 @@ public class OrderResponseForUser {
     private long id;
     private LocalDateTime localDateTime;
     private List<OrderedProduct> goods;
-    private double sum;
+    @JsonSerialize(using = MoneySerializer.class)
+    private long sum;
     private String status;
 
     public OrderResponseForUser(Order order) {
@@ -26,12 +30,20 @@ public class OrderResponseForUser {
         this.status = order.getStatus().toString();
     }
 
+    public OrderResponseForUser(OrderView view) {
+        this.id = view.getOrderId();
+        this.localDateTime = view.getLocalDateTime();
+        this.goods = view.lines();
+        this.sum = view.getSum();
+        this.status = view.getStatus().toString();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         OrderResponseForUser that = (OrderResponseForUser) o;
-        return id == that.id && Double.compare(sum, that.sum) == 0 && Objects.equals(localDateTime, that.localDateTime) && Objects.equals(goods, that.goods) && Objects.equals(status, that.status);
+        return id == that.id && sum == that.sum && Objects.equals(localDateTime, that.localDateTime) && Objects.equals(goods, that.goods) && Objects.equals(status, that.status);
     }
 
     @Override
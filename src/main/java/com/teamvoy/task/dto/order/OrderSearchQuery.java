@@ -0,0 +1,98 @@
+package com.teamvoy.task.dto.order;
+
+import com.teamvoy.task.exception.InvalidCursorException;
+import com.teamvoy.task.model.Order;
+import com.teamvoy.task.model.OrderView;
+import com.teamvoy.task.model.Status;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+@Getter
+@Setter
+public class OrderSearchQuery {
+    public static final String BY_DATE = "date";
+    public static final String BY_SUM = "sum";
+    public static final String BY_ID = "id";
+
+    private Status status;
+    private Long userId;
+    // Inclusive lower and exclusive upper bound on the order time.
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+    private BigDecimal minSum;
+    private BigDecimal maxSum;
+    // "date" (default, also for anything unknown), "sum" or "id"; a leading '-' sorts descending.
+    private String sort;
+    private String cursor;
+
+    public String sortField() {
+        String field = sort == null || sort.isBlank() ? BY_DATE : sort.startsWith("-") ? sort.substring(1) : sort;
+        switch (field.toLowerCase()) {
+            case BY_SUM:
+                return BY_SUM;
+            case BY_ID:
+                return BY_ID;
+            default:
+                return BY_DATE;
+        }
+    }
+
+    public boolean descending() {
+        return sort != null && sort.startsWith("-");
+    }
+
+    /**
+     * Cursor pointing just past the given order: "sortKey:id", or just the id when sorting by id. Sums
+     * are keyed in minor units.
+     */
+    public String cursorAfter(Order order) {
+        return cursorAfter(order.getId(), order.getLocalDateTime(), order.getSum());
+    }
+
+    public String cursorAfter(OrderView view) {
+        return cursorAfter(view.getOrderId(), view.getLocalDateTime(), view.getSum());
+    }
+
+    private String cursorAfter(long id, LocalDateTime localDateTime, long sum) {
+        switch (sortField()) {
+            case BY_DATE:
+                return localDateTime + ":" + id;
+            case BY_SUM:
+                return sum + ":" + id;
+            default:
+                return String.valueOf(id);
+        }
+    }
+
+    public Comparable<?> cursorKey() {
+        String key = cursor.substring(0, separator());
+        try {
+            return BY_DATE.equals(sortField()) ? LocalDateTime.parse(key) : Long.valueOf(key);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new InvalidCursorException("Malformed cursor: " + cursor);
+        }
+    }
+
+    public long cursorId() {
+        try {
+            return Long.parseLong(BY_ID.equals(sortField()) ? cursor : cursor.substring(separator() + 1));
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Malformed cursor: " + cursor);
+        }
+    }
+
+    private int separator() {
+        int separator = cursor.lastIndexOf(':');
+        if (separator <= 0) {
+            throw new InvalidCursorException("Malformed cursor: " + cursor);
+        }
+        return separator;
+    }
+}
@@ -0,0 +1,16 @@
+package com.teamvoy.task.dto.order;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentResult {
+    private long orderId;
+    private boolean paid;
+    private String message;
+}
@@ -0,0 +1,26 @@
+package com.teamvoy.task.dto.report;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.teamvoy.task.money.MoneySerializer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SalesTotal {
+    private Long productId;
+    private Long userId;
+    private LocalDate day;
+    private long units;
+    @JsonSerialize(using = MoneySerializer.class)
+    private long revenue;
+    private long orders;
+}
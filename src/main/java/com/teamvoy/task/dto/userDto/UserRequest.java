@@ -1,5 +1,7 @@
 package com.teamvoy.task.dto.userDto;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.teamvoy.task.money.MoneyDeserializer;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -13,12 +15,13 @@ public class UserRequest {
     private String lastName;
     private String email;
     private String password;
-    private double balance;
+    @JsonDeserialize(using = MoneyDeserializer.class)
+    private long balance;
 
     public UserRequest() {
     }
 
-    public UserRequest(String firstName, String lastName, String email, String password, double balance) {
+    public UserRequest(String firstName, String lastName, String email, String password, long balance) {
         this.firstName = firstName;
         this.lastName = lastName;
         this.email = email;
@@ -31,7 +34,7 @@ public class UserRequest {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         UserRequest that = (UserRequest) o;
-        return Double.compare(balance, that.balance) == 0 && Objects.equals(firstName, that.firstName) && Objects.equals(lastName, that.lastName) && Objects.equals(email, that.email) && Objects.equals(password, that.password);
+        return balance == that.balance && Objects.equals(firstName, that.firstName) && Objects.equals(lastName, that.lastName) && Objects.equals(email, that.email) && Objects.equals(password, that.password);
     }
 
     @Override
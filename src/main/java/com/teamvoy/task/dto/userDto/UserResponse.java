@@ -1,11 +1,13 @@
 package com.teamvoy.task.dto.userDto;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.teamvoy.task.dto.order.OrderResponseForUser;
+import com.teamvoy.task.model.OrderView;
 import com.teamvoy.task.model.User;
+import com.teamvoy.task.money.MoneySerializer;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -16,23 +18,21 @@ public class UserResponse {
     private String firstName;
     private String lastName;
     private String email;
-    private double balance;
+    @JsonSerialize(using = MoneySerializer.class)
+    private long balance;
     private String role;
     private List<OrderResponseForUser> userOrders;
 
     public UserResponse(){
 
     }
-    public UserResponse(User user) {
+    public UserResponse(User user, List<OrderView> orders) {
         this.id = user.getId();
         this.firstName = user.getFirstName();
         this.lastName = user.getLastName();
         this.email = user.getEmail();
         this.balance = user.getBalance();
         this.role = user.getRole().getName();
-        if (user.getOrders() != null) {
-            this.userOrders = user.getOrders().stream().map(OrderResponseForUser::new).distinct().collect(Collectors.toList());
-        } else
-            userOrders = new ArrayList<>();
+        this.userOrders = orders.stream().map(OrderResponseForUser::new).collect(Collectors.toList());
     }
-}
\ No newline at end of file
+}
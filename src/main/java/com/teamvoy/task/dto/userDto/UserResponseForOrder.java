@@ -1,5 +1,6 @@
 package com.teamvoy.task.dto.userDto;
 
+import com.teamvoy.task.model.OrderView;
 import com.teamvoy.task.model.User;
 import lombok.Getter;
 import lombok.Setter;
@@ -23,4 +24,12 @@ public class UserResponseForOrder {
         this.email = user.getEmail();
         this.role = user.getRole().getName();
     }
+
+    public UserResponseForOrder(OrderView view) {
+        this.id = view.getUserId();
+        this.firstName = view.getUserFirstName();
+        this.lastName = view.getUserLastName();
+        this.email = view.getUserEmail();
+        this.role = view.getUserRole();
+    }
 }
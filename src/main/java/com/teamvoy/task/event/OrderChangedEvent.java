@@ -0,0 +1,29 @@
+package com.teamvoy.task.event;
+
+import com.teamvoy.task.model.Order;
+import lombok.Getter;
+
+@Getter
+public class OrderChangedEvent {
+    public enum Kind {
+        CREATED, UPDATED, PAID, EXPIRED, DELETED
+    }
+
+    private final Kind kind;
+    private final long orderId;
+    private final Order order;
+
+    private OrderChangedEvent(Kind kind, long orderId, Order order) {
+        this.kind = kind;
+        this.orderId = orderId;
+        this.order = order;
+    }
+
+    public static OrderChangedEvent of(Kind kind, Order order) {
+        return new OrderChangedEvent(kind, order.getId(), order);
+    }
+
+    public static OrderChangedEvent of(Kind kind, long orderId) {
+        return new OrderChangedEvent(kind, orderId, null);
+    }
+}
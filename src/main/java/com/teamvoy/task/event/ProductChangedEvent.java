@@ -0,0 +1,52 @@
+package com.teamvoy.task.event;
+
+import com.teamvoy.task.model.Product;
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Getter
+public class ProductChangedEvent {
+    public enum Kind {
+        SAVED, REMOVED, STOCK
+    }
+
+    private final Kind kind;
+    private final Set<Long> productIds;
+    private final List<Product> products;
+
+    private ProductChangedEvent(Kind kind, Set<Long> productIds, List<Product> products) {
+        this.kind = kind;
+        this.productIds = Collections.unmodifiableSet(productIds);
+        this.products = Collections.unmodifiableList(products);
+    }
+
+    public static ProductChangedEvent saved(Product product) {
+        return saved(List.of(product));
+    }
+
+    public static ProductChangedEvent saved(Collection<Product> products) {
+        return new ProductChangedEvent(Kind.SAVED, idsOf(products), List.copyOf(products));
+    }
+
+    public static ProductChangedEvent removed(long productId) {
+        return new ProductChangedEvent(Kind.REMOVED, Set.of(productId), List.of());
+    }
+
+    public static ProductChangedEvent stock(Collection<Product> products) {
+        return new ProductChangedEvent(Kind.STOCK, idsOf(products), List.copyOf(products));
+    }
+
+    public static ProductChangedEvent stockOf(Collection<Long> productIds) {
+        return new ProductChangedEvent(Kind.STOCK, new LinkedHashSet<>(productIds), List.of());
+    }
+
+    private static Set<Long> idsOf(Collection<Product> products) {
+        return products.stream().map(Product::getId).collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+}
@@ -0,0 +1,12 @@
+package com.teamvoy.task.event;
+
+import lombok.Getter;
+
+@Getter
+public class UserChangedEvent {
+    private final long userId;
+
+    public UserChangedEvent(long userId) {
+        this.userId = userId;
+    }
+}
@@ -2,6 +2,8 @@ package com.teamvoy.task.exception;
 
 import io.jsonwebtoken.ExpiredJwtException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -51,11 +53,46 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(getBodyEx(ex, ex.getMessage(), HttpStatus.BAD_REQUEST), HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(OrderNotPayableException.class)
+    public ResponseEntity<?> handleOrderNotPayableException(OrderNotPayableException ex) {
+        return new ResponseEntity<>(getBodyEx(ex, ex.getMessage(), HttpStatus.CONFLICT), HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(NotEnoughAmountException.class)
     public ResponseEntity<?> handleNotEnoughAmountException(NotEnoughAmountException ex) {
         return new ResponseEntity<>(getBodyEx(ex, ex.getMessage(), HttpStatus.BAD_REQUEST), HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<?> handleInvalidCursorException(InvalidCursorException ex) {
+        return new ResponseEntity<>(getBodyEx(ex, ex.getMessage(), HttpStatus.BAD_REQUEST), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<?> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        return new ResponseEntity<>(getBodyEx(ex, "The resource was changed by another request, please reload it and retry",
+                HttpStatus.CONFLICT), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(IdempotencyKeyConflictException.class)
+    public ResponseEntity<?> handleIdempotencyKeyConflictException(IdempotencyKeyConflictException ex) {
+        return new ResponseEntity<>(getBodyEx(ex, ex.getMessage(), HttpStatus.CONFLICT), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(OrderIntakeFullException.class)
+    public ResponseEntity<?> handleOrderIntakeFullException(OrderIntakeFullException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(getBodyEx(ex, ex.getMessage(), HttpStatus.TOO_MANY_REQUESTS));
+    }
+
+    @ExceptionHandler(OrderIntakeTimeoutException.class)
+    public ResponseEntity<?> handleOrderIntakeTimeoutException(OrderIntakeTimeoutException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(getBodyEx(ex, ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE));
+    }
+
     @ExceptionHandler(UsernameNotFoundException.class)
     public ResponseEntity<?> handleUsernameNotFoundException(UsernameNotFoundException ex) {
         return new ResponseEntity<>(getBodyEx(ex, ex.getMessage(), HttpStatus.NOT_FOUND), HttpStatus.NOT_FOUND);
@@ -0,0 +1,19 @@
+package com.teamvoy.task.exception;
+
+public class IdempotencyKeyConflictException extends RuntimeException {
+    public IdempotencyKeyConflictException() {
+        super();
+    }
+
+    public IdempotencyKeyConflictException(String message) {
+        super(message);
+    }
+
+    public IdempotencyKeyConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public IdempotencyKeyConflictException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,19 @@
+package com.teamvoy.task.exception;
+
+public class OrderIntakeFullException extends RuntimeException {
+    public OrderIntakeFullException() {
+        super();
+    }
+
+    public OrderIntakeFullException(String message) {
+        super(message);
+    }
+
+    public OrderIntakeFullException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public OrderIntakeFullException(Throwable cause) {
+        super(cause);
+    }
+}
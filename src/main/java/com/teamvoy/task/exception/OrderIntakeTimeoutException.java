@@ -0,0 +1,19 @@
+package com.teamvoy.task.exception;
+
+public class OrderIntakeTimeoutException extends RuntimeException {
+    public OrderIntakeTimeoutException() {
+        super();
+    }
+
+    public OrderIntakeTimeoutException(String message) {
+        super(message);
+    }
+
+    public OrderIntakeTimeoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public OrderIntakeTimeoutException(Throwable cause) {
+        super(cause);
+    }
+}
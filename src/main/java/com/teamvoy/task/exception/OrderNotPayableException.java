@@ -0,0 +1,19 @@
+package com.teamvoy.task.exception;
+
+public class OrderNotPayableException extends RuntimeException {
+    public OrderNotPayableException() {
+        super();
+    }
+
+    public OrderNotPayableException(String message) {
+        super(message);
+    }
+
+    public OrderNotPayableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public OrderNotPayableException(Throwable cause) {
+        super(cause);
+    }
+}
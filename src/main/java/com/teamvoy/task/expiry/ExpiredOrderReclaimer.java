@@ -0,0 +1,203 @@
+package com.teamvoy.task.expiry;
+
+import com.teamvoy.task.event.OrderChangedEvent;
+import com.teamvoy.task.event.ProductChangedEvent;
+import com.teamvoy.task.inventory.InventoryEngine;
+import com.teamvoy.task.repository.OrderJdbcRepository;
+import com.teamvoy.task.repository.SweepLeaseJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Releases unpaid orders in chunks of at most {@code chunk-size}, each in its own short transaction:
+ * lock the chunk, put its stock back with one aggregated UPDATE, then bulk-delete its lines and orders.
+ * The backstop sweep is split into {@code partitions} by order id; a node only sweeps the partitions it
+ * holds a lease on, so several instances share the work instead of repeating it.
+ *
+ * <p>Besides the short leases a sweep takes, each node keeps a fair share of the partitions leased for as
+ * long as it runs ({@link #refreshLeases()}); {@link OrderExpiryWheel} only tracks the orders of those.
+ * The share is {@code ceil(partitions / live nodes)}, with live nodes counted from their heartbeats, so a
+ * node that has just started and holds nothing yet is still counted and the others hand partitions over.
+ */
+@Slf4j
+@Component
+public class ExpiredOrderReclaimer {
+    private final OrderJdbcRepository orderJdbcRepository;
+    private final SweepLeaseJdbcRepository sweepLeaseJdbcRepository;
+    private final InventoryEngine inventoryEngine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int partitions;
+    private final long leaseMs;
+    private final String nodeId;
+    private volatile boolean partitionsSeeded;
+    private volatile Set<Integer> heldPartitions = Set.of();
+
+    @Autowired
+    public ExpiredOrderReclaimer(OrderJdbcRepository orderJdbcRepository, SweepLeaseJdbcRepository sweepLeaseJdbcRepository,
+                                 InventoryEngine inventoryEngine, ApplicationEventPublisher eventPublisher,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${teamvoy.order-expiry.chunk-size:200}") int chunkSize,
+                                 @Value("${teamvoy.order-expiry.partitions:8}") int partitions,
+                                 @Value("${teamvoy.order-expiry.lease-ms:60000}") long leaseMs,
+                                 @Value("${teamvoy.node-id:}") String nodeId) {
+        this.orderJdbcRepository = orderJdbcRepository;
+        this.sweepLeaseJdbcRepository = sweepLeaseJdbcRepository;
+        this.inventoryEngine = inventoryEngine;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.partitions = Math.max(1, partitions);
+        this.leaseMs = leaseMs;
+        this.nodeId = nodeId == null || nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public Set<Integer> heldPartitions() {
+        return heldPartitions;
+    }
+
+    // Renews what this node holds, gives back anything above its share and takes free partitions up to it.
+    // Runs well within lease-ms, so a held lease only lapses when the node is gone.
+    @Scheduled(fixedDelayString = "${teamvoy.order-expiry.lease-refresh-ms:20000}")
+    public synchronized Set<Integer> refreshLeases() {
+        seedPartitions();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(Duration.ofMillis(leaseMs));
+        sweepLeaseJdbcRepository.heartbeat(nodeId, until);
+        int nodes = Math.max(1, sweepLeaseJdbcRepository.countLiveNodes(now));
+        int share = (partitions + nodes - 1) / nodes;
+
+        TreeSet<Integer> held = new TreeSet<>();
+        for (int partition : heldPartitions) {
+            if (sweepLeaseJdbcRepository.renew(partition, nodeId, until)) {
+                held.add(partition);
+            }
+        }
+        while (held.size() > share) {
+            int partition = held.pollLast();
+            sweepLeaseJdbcRepository.release(partition, nodeId);
+        }
+        int first = Math.floorMod(nodeId.hashCode(), partitions);
+        for (int i = 0; i < partitions && held.size() < share; i++) {
+            int partition = (first + i) % partitions;
+            if (!held.contains(partition) && sweepLeaseJdbcRepository.tryAcquire(partition, nodeId, now, until)) {
+                held.add(partition);
+            }
+        }
+        if (!held.equals(heldPartitions)) {
+            log.info("Node {} now holds expiry partitions {} of {}", nodeId, held, partitions);
+        }
+        heldPartitions = Collections.unmodifiableSet(held);
+        return heldPartitions;
+    }
+
+    // Expiry is driven by OrderExpiryWheel; this sweep is only a backstop for orders the wheel never saw.
+    @Scheduled(fixedDelayString = "${teamvoy.order-expiry.sweep-interval-ms:900000}")
+    public int reclaimExpired() {
+        seedPartitions();
+        LocalDateTime cutoff = LocalDateTime.now().minus(OrderExpiryWheel.PAYMENT_WINDOW);
+        // Each node starts at a different partition so that nodes sweeping at the same moment spread out.
+        int first = Math.floorMod(nodeId.hashCode(), partitions);
+        int reclaimed = 0;
+        for (int i = 0; i < partitions; i++) {
+            int partition = (first + i) % partitions;
+            LocalDateTime now = LocalDateTime.now();
+            if (sweepLeaseJdbcRepository.tryAcquire(partition, nodeId, now, now.plus(Duration.ofMillis(leaseMs)))) {
+                reclaimed += sweepPartition(cutoff, partition);
+            }
+        }
+        if (reclaimed > 0) {
+            log.info("Node {} reclaimed {} expired orders", nodeId, reclaimed);
+        }
+        return reclaimed;
+    }
+
+    private void seedPartitions() {
+        if (!partitionsSeeded) {
+            sweepLeaseJdbcRepository.ensurePartitions(partitions);
+            partitionsSeeded = true;
+        }
+    }
+
+    private int sweepPartition(LocalDateTime cutoff, int partition) {
+        int reclaimed = 0;
+        try {
+            int chunk;
+            do {
+                chunk = reclaimChunk(() -> orderJdbcRepository.lockUnpaidCreatedBefore(cutoff, partitions, partition, chunkSize));
+                reclaimed += chunk;
+            } while (chunk == chunkSize
+                    && sweepLeaseJdbcRepository.renew(partition, nodeId, LocalDateTime.now().plus(Duration.ofMillis(leaseMs))));
+        } finally {
+            // A partition this node holds for its wheel stays leased; refreshLeases keeps renewing it.
+            if (!heldPartitions.contains(partition)) {
+                sweepLeaseJdbcRepository.release(partition, nodeId);
+            }
+        }
+        return reclaimed;
+    }
+
+    /**
+     * Reclaims those of the given orders that are still unpaid and returns the ids actually reclaimed.
+     */
+    public Set<Long> reclaim(Collection<Long> orderIds) {
+        Set<Long> reclaimed = new LinkedHashSet<>();
+        List<Long> ids = new ArrayList<>(orderIds);
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            reclaimChunk(() -> {
+                List<Long> locked = orderJdbcRepository.lockUnpaid(chunk);
+                reclaimed.addAll(locked);
+                return locked;
+            });
+        }
+        return reclaimed;
+    }
+
+    private int reclaimChunk(Supplier<List<Long>> lock) {
+        List<Long> orderIds = new ArrayList<>();
+        Map<Long, Long> amountsByProduct = new LinkedHashMap<>();
+        transactionTemplate.execute(status -> {
+            orderIds.addAll(lock.get());
+            if (orderIds.isEmpty()) {
+                return null;
+            }
+            amountsByProduct.putAll(orderJdbcRepository.sumLinesByProduct(orderIds));
+            if (!inventoryEngine.isEnabled()) {
+                orderJdbcRepository.restock(orderIds);
+            }
+            return orderJdbcRepository.deleteAll(orderIds);
+        });
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+
+        // Committed by now; the engine only gets its stock back once the orders are really gone.
+        if (inventoryEngine.isEnabled()) {
+            amountsByProduct.forEach(inventoryEngine::release);
+        } else if (!amountsByProduct.isEmpty()) {
+            eventPublisher.publishEvent(ProductChangedEvent.stockOf(amountsByProduct.keySet()));
+        }
+        orderIds.forEach(orderId -> eventPublisher.publishEvent(OrderChangedEvent.of(OrderChangedEvent.Kind.EXPIRED, orderId)));
+        return orderIds.size();
+    }
+}
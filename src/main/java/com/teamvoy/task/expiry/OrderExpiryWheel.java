@@ -0,0 +1,226 @@
+package com.teamvoy.task.expiry;
+
+import com.teamvoy.task.event.OrderChangedEvent;
+import com.teamvoy.task.model.Order;
+import com.teamvoy.task.model.Status;
+import com.teamvoy.task.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Hashed timing wheel of unpaid order deadlines: scheduling and cancelling are O(1) and each tick only
+// looks at the orders that fall into its own slot, so an order is released within one tick of its deadline.
+// A node only tracks the orders of the partitions it leases (ExpiredOrderReclaimer.refreshLeases), so each
+// wheel holds its own share; the set is checked every tick and orders are loaded or dropped as it changes.
+@Slf4j
+@Component
+public class OrderExpiryWheel {
+    public static final Duration PAYMENT_WINDOW = Duration.ofMinutes(10);
+
+    private final ExpiredOrderReclaimer reclaimer;
+    private final OrderRepository orderRepository;
+    private final boolean enabled;
+    private final long tickMs;
+    private final int mask;
+
+    private final List<Set<Long>> slots;
+    private final Map<Long, Long> deadlineTicks = new HashMap<>();
+    private long currentTick = -1;
+    private volatile Set<Integer> loadedPartitions = Set.of();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private ScheduledExecutorService ticker;
+
+    @Autowired
+    public OrderExpiryWheel(ExpiredOrderReclaimer reclaimer, OrderRepository orderRepository,
+                            @Value("${teamvoy.order-expiry.wheel.enabled:true}") boolean enabled,
+                            @Value("${teamvoy.order-expiry.tick-ms:1000}") long tickMs,
+                            @Value("${teamvoy.order-expiry.wheel-size:1024}") int wheelSize) {
+        this.reclaimer = reclaimer;
+        this.orderRepository = orderRepository;
+        this.enabled = enabled;
+        this.tickMs = Math.max(1, tickMs);
+        int size = Integer.highestOneBit(Math.max(2, wheelSize - 1)) << 1;
+        this.mask = size - 1;
+        this.slots = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            slots.add(new HashSet<>());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Rebuilt from the database so that orders placed before a restart still expire on time.
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        reclaimer.refreshLeases();
+        syncPartitions();
+
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-expiry-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(this::advanceQuietly, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @EventListener
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        switch (event.getKind()) {
+            case CREATED:
+                Order order = event.getOrder();
+                if (order != null && order.getStatus() == Status.NOT_PAID && order.getLocalDateTime() != null
+                        && owns(order.getId())) {
+                    schedule(order.getId(), order.getLocalDateTime());
+                }
+                break;
+            case PAID:
+            case DELETED:
+            case EXPIRED:
+                cancel(event.getOrderId());
+                break;
+            default:
+                break;
+        }
+    }
+
+    // Drops the orders of partitions this node no longer leases and loads the unpaid orders of the ones it
+    // has gained. An order created meanwhile in a gained partition is either in the load or scheduled twice,
+    // which is harmless.
+    void syncPartitions() {
+        Set<Integer> held = reclaimer.heldPartitions();
+        Set<Integer> gained;
+        synchronized (this) {
+            if (held.equals(loadedPartitions)) {
+                return;
+            }
+            gained = new TreeSet<>(held);
+            gained.removeAll(loadedPartitions);
+            int partitions = reclaimer.getPartitions();
+            new ArrayList<>(deadlineTicks.keySet()).stream()
+                    .filter(orderId -> !held.contains((int) Math.floorMod(orderId, (long) partitions)))
+                    .forEach(this::cancel);
+            loadedPartitions = held;
+        }
+        if (gained.isEmpty()) {
+            return;
+        }
+        List<Object[]> unpaid = orderRepository.findUnpaidOrderTimes(reclaimer.getPartitions(), gained);
+        unpaid.forEach(row -> {
+            if (owns((Long) row[0])) {
+                schedule((Long) row[0], (LocalDateTime) row[1]);
+            }
+        });
+        log.info("Order expiry wheel loaded {} unpaid orders of partitions {}", unpaid.size(), gained);
+    }
+
+    private boolean owns(Long orderId) {
+        return orderId != null && loadedPartitions.contains((int) Math.floorMod(orderId, (long) reclaimer.getPartitions()));
+    }
+
+    public void schedule(long orderId, LocalDateTime createdAt) {
+        long deadline = createdAt.plus(PAYMENT_WINDOW).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        scheduleAt(orderId, deadline);
+    }
+
+    synchronized void scheduleAt(long orderId, long deadlineMs) {
+        cancel(orderId);
+        // Rounded up so that an order is never released before its deadline.
+        long tick = Math.max((deadlineMs + tickMs - 1) / tickMs, currentTick + 1);
+        deadlineTicks.put(orderId, tick);
+        slots.get((int) (tick & mask)).add(orderId);
+    }
+
+    public synchronized void cancel(long orderId) {
+        Long tick = deadlineTicks.remove(orderId);
+        if (tick != null) {
+            slots.get((int) (tick & mask)).remove(orderId);
+        }
+    }
+
+    public synchronized int size() {
+        return deadlineTicks.size();
+    }
+
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("scheduled", (long) size());
+        stats.put("partitions", (long) loadedPartitions.size());
+        stats.put("expired", expired.get());
+        stats.put("failures", failures.get());
+        return stats;
+    }
+
+    // Everything due in one tick is reclaimed together, in the reclaimer's set-based chunks.
+    void advanceTo(long nowMs) {
+        List<Long> due = collectDue(nowMs / tickMs);
+        if (due.isEmpty()) {
+            return;
+        }
+        try {
+            expired.addAndGet(reclaimer.reclaim(due).size());
+        } catch (RuntimeException e) {
+            failures.incrementAndGet();
+            log.error("Could not expire {} orders, retrying on the next tick: {}", due.size(), e.getMessage());
+            due.forEach(orderId -> scheduleAt(orderId, nowMs + tickMs));
+        }
+    }
+
+    // Walks every tick since the last advance (the whole wheel on the first one or after a long pause);
+    // entries that belong to a later lap stay put.
+    private synchronized List<Long> collectDue(long nowTick) {
+        List<Long> due = new ArrayList<>();
+        boolean fullLap = currentTick < 0 || nowTick - currentTick > mask;
+        long from = fullLap ? nowTick - mask : currentTick + 1;
+        for (long tick = from; tick <= nowTick; tick++) {
+            Iterator<Long> slot = slots.get((int) (tick & mask)).iterator();
+            while (slot.hasNext()) {
+                Long orderId = slot.next();
+                if (deadlineTicks.get(orderId) <= nowTick) {
+                    slot.remove();
+                    deadlineTicks.remove(orderId);
+                    due.add(orderId);
+                }
+            }
+        }
+        currentTick = Math.max(currentTick, nowTick);
+        return due;
+    }
+
+    private void advanceQuietly() {
+        try {
+            syncPartitions();
+            advanceTo(System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            log.error("Order expiry tick failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+}
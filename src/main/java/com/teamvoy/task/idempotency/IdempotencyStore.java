@@ -0,0 +1,143 @@
+package com.teamvoy.task.idempotency;
+
+import com.teamvoy.task.exception.IdempotencyKeyConflictException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the result of each (scope, Idempotency-Key) pair for a while, so a retried request gets
+ * the first response back instead of running again. A duplicate that arrives while the first one is
+ * still running waits for it. Failed executions are forgotten, so the client may retry them, and so are
+ * executions still running after the TTL.
+ */
+@Component
+public class IdempotencyStore {
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final long waitMs;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+    public IdempotencyStore(@Value("${teamvoy.idempotency.max-entries:10000}") int maxEntries,
+                            @Value("${teamvoy.idempotency.ttl-seconds:86400}") long ttlSeconds,
+                            @Value("${teamvoy.idempotency.wait-ms:10000}") long waitMs) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.waitMs = waitMs;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String scope, String key, String fingerprint, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        String storeKey = scope + "|" + key;
+        Entry entry;
+        boolean owner = false;
+        synchronized (this) {
+            long now = System.nanoTime();
+            evictExpired(now);
+            entry = entries.get(storeKey);
+            if (entry == null) {
+                entry = new Entry(fingerprint, now);
+                entries.put(storeKey, entry);
+                owner = true;
+                evictOverflow();
+            }
+        }
+        if (!Objects.equals(entry.fingerprint, fingerprint)) {
+            throw new IdempotencyKeyConflictException("Idempotency-Key " + key + " was already used for a different request");
+        }
+        if (owner) {
+            return (T) run(storeKey, entry, action);
+        }
+        return (T) await(key, entry);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private Object run(String storeKey, Entry entry, Supplier<?> action) {
+        boolean completed = false;
+        try {
+            Object result = action.get();
+            entry.result.complete(result);
+            completed = true;
+            return result;
+        } catch (Throwable e) {
+            entry.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            // Whatever went wrong, the key must not stay in flight, or every retry would wait on it forever.
+            if (!completed) {
+                synchronized (this) {
+                    entries.remove(storeKey, entry);
+                }
+            }
+        }
+    }
+
+    private Object await(String key, Entry entry) {
+        try {
+            return entry.result.get(waitMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyConflictException("A request with Idempotency-Key " + key + " is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyConflictException("Interrupted while waiting for Idempotency-Key " + key);
+        }
+    }
+
+    // Entries are kept in creation order, so expired ones are always at the head.
+    private void evictExpired(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (now - entry.createdAt < ttlNanos) {
+                return;
+            }
+            iterator.remove();
+            // A run that outlived the TTL is treated as lost; its waiters are released instead of
+            // blocking the key, and a later retry runs again.
+            entry.result.completeExceptionally(
+                    new IdempotencyKeyConflictException("A request with this Idempotency-Key did not finish in time"));
+        }
+    }
+
+    // In-flight entries are never dropped, otherwise their duplicates would run a second time.
+    private void evictOverflow() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            if (iterator.next().result.isDone()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static class Entry {
+        private final String fingerprint;
+        private final long createdAt;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        private Entry(String fingerprint, long createdAt) {
+            this.fingerprint = fingerprint;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.teamvoy.task.intake;
+
+import com.teamvoy.task.dto.order.OrderRequest;
+import com.teamvoy.task.exception.EntityNotFoundException;
+import com.teamvoy.task.exception.NotEnoughAmountException;
+import com.teamvoy.task.exception.OrderIntakeFullException;
+import com.teamvoy.task.exception.OrderIntakeTimeoutException;
+import com.teamvoy.task.model.Order;
+import com.teamvoy.task.model.User;
+import com.teamvoy.task.service.OrderService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Optional group-commit path for order placement: callers enqueue their order and block until
+ * the writer thread has committed the group it landed in, so many orders share one commit. A caller
+ * whose order is still queued after {@code teamvoy.order-intake.reply-timeout-ms} cancels it and gives
+ * up; one whose order the writer has already taken waits for that commit to finish.
+ */
+@Slf4j
+@Component
+public class OrderIntakeQueue {
+    private static final long POLL_MS = 100;
+
+    private final OrderService orderService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int groupSize;
+    private final long maxWaitNanos;
+    private final long replyTimeoutMs;
+    private final BlockingQueue<PendingOrder> queue;
+    private volatile boolean running;
+    private Thread writer;
+
+    @Autowired
+    public OrderIntakeQueue(OrderService orderService, TransactionTemplate transactionTemplate,
+                            @Value("${teamvoy.order-intake.enabled:false}") boolean enabled,
+                            @Value("${teamvoy.order-intake.group-size:50}") int groupSize,
+                            @Value("${teamvoy.order-intake.max-wait-ms:5}") long maxWaitMs,
+                            @Value("${teamvoy.order-intake.queue-depth:1000}") int queueDepth,
+                            @Value("${teamvoy.order-intake.reply-timeout-ms:10000}") long replyTimeoutMs) {
+        this.orderService = orderService;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.groupSize = Math.max(1, groupSize);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueDepth));
+        this.replyTimeoutMs = replyTimeoutMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drain, "order-intake-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Order intake started: groups of up to {} orders, queue depth {}", groupSize, queue.remainingCapacity());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public CompletableFuture<Order> submit(List<OrderRequest> orderRequests, User user) {
+        return enqueue(orderRequests, user).future;
+    }
+
+    public Order place(List<OrderRequest> orderRequests, User user) {
+        PendingOrder pending = enqueue(orderRequests, user);
+        try {
+            return pending.future.get(replyTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (pending.claim()) {
+                // Still queued: the writer will skip it, so the client can safely retry.
+                pending.future.cancel(false);
+                throw new OrderIntakeTimeoutException("The order could not be placed in time, please retry shortly");
+            }
+            // The writer is already committing it; its outcome is the answer, or a retry would place it twice.
+            return awaitOutcome(pending);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OrderIntakeTimeoutException("Interrupted while waiting for the order to be placed");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        PendingOrder left;
+        while ((left = queue.poll()) != null) {
+            left.future.completeExceptionally(new OrderIntakeFullException("Order intake is shutting down"));
+        }
+    }
+
+    private PendingOrder enqueue(List<OrderRequest> orderRequests, User user) {
+        PendingOrder pending = new PendingOrder(orderRequests, user);
+        if (!running || !queue.offer(pending)) {
+            throw new OrderIntakeFullException("Too many orders are being placed right now, please retry shortly");
+        }
+        return pending;
+    }
+
+    private Order awaitOutcome(PendingOrder pending) {
+        try {
+            return pending.future.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OrderIntakeTimeoutException("Interrupted while waiting for the order to be placed");
+        }
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+            return (RuntimeException) e.getCause();
+        }
+        return new IllegalStateException(e.getCause());
+    }
+
+    private void drain() {
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingOrder first = queue.poll(POLL_MS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    commit(collectGroup(first));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Order intake writer failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private List<PendingOrder> collectGroup(PendingOrder first) throws InterruptedException {
+        List<PendingOrder> group = new ArrayList<>(groupSize);
+        group.add(first);
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while (group.size() < groupSize) {
+            long remaining = deadline - System.nanoTime();
+            PendingOrder next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+            if (next == null) {
+                break;
+            }
+            group.add(next);
+        }
+        return group;
+    }
+
+    // An order that is short of stock or names an unknown product fails on its own and leaves the
+    // group's transaction usable; anything else rolls the whole group back.
+    void commit(List<PendingOrder> group) {
+        Map<PendingOrder, RuntimeException> rejected = new LinkedHashMap<>();
+        Map<PendingOrder, Order> placed = new LinkedHashMap<>();
+        try {
+            transactionTemplate.execute(status -> {
+                for (PendingOrder pending : group) {
+                    if (!pending.claim()) {
+                        continue;
+                    }
+                    try {
+                        placed.put(pending, orderService.placeOrder(pending.orderRequests, pending.user));
+                    } catch (NotEnoughAmountException | EntityNotFoundException e) {
+                        rejected.put(pending, e);
+                    }
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.error("Order group of {} failed to commit: {}", group.size(), e.getMessage());
+            group.forEach(pending -> pending.future.completeExceptionally(e));
+            return;
+        }
+        placed.forEach((pending, order) -> pending.future.complete(order));
+        rejected.forEach((pending, e) -> pending.future.completeExceptionally(e));
+    }
+
+    static class PendingOrder {
+        private final List<OrderRequest> orderRequests;
+        private final User user;
+        private final CompletableFuture<Order> future = new CompletableFuture<>();
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        PendingOrder(List<OrderRequest> orderRequests, User user) {
+            this.orderRequests = orderRequests;
+            this.user = user;
+        }
+
+        // Either the writer takes the order to place it, or the timed-out caller takes it to cancel it.
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
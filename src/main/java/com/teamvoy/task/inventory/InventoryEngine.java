@@ -0,0 +1,236 @@
+package com.teamvoy.task.inventory;
+
+import com.teamvoy.task.event.ProductChangedEvent;
+import com.teamvoy.task.exception.EntityNotFoundException;
+import com.teamvoy.task.model.Product;
+import com.teamvoy.task.repository.ProductJdbcRepository;
+import com.teamvoy.task.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+public class InventoryEngine {
+    private static final int SHUTDOWN_FLUSH_ATTEMPTS = 5;
+
+    private final ProductRepository productRepository;
+    private final ProductJdbcRepository productJdbcRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final long flushIntervalMs;
+
+    private final ConcurrentHashMap<Long, AtomicLong> available = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, AtomicLong> pending = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+    private ScheduledExecutorService flusher;
+
+    @Autowired
+    public InventoryEngine(ProductRepository productRepository, ProductJdbcRepository productJdbcRepository,
+                           ApplicationEventPublisher eventPublisher,
+                           @Value("${teamvoy.inventory.engine.enabled:false}") boolean enabled,
+                           @Value("${teamvoy.inventory.flush-interval-ms:200}") long flushIntervalMs) {
+        this.productRepository = productRepository;
+        this.productJdbcRepository = productJdbcRepository;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Inventory engine started, flushing every {} ms", flushIntervalMs);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean tryReserve(long productId, long quantity) {
+        AtomicLong counter = counterFor(productId);
+        long current;
+        do {
+            current = counter.get();
+            if (current < quantity) {
+                return false;
+            }
+        } while (!counter.compareAndSet(current, current - quantity));
+        pendingFor(productId).addAndGet(-quantity);
+        trackInTransaction(productId, -quantity);
+        return true;
+    }
+
+    public void release(long productId, long quantity) {
+        adjust(productId, quantity);
+        trackInTransaction(productId, quantity);
+    }
+
+    public long available(long productId) {
+        return counterFor(productId).get();
+    }
+
+    public long pendingDelta(long productId) {
+        AtomicLong delta = pending.get(productId);
+        return delta == null ? 0 : delta.get();
+    }
+
+    // Every product's unflushed delta becomes one "amount = amount + ?" row of a single JDBC batch.
+    public void flush() {
+        synchronized (flushLock) {
+            Map<Long, Long> batch = new LinkedHashMap<>();
+            pending.forEach((productId, delta) -> {
+                long value = delta.getAndSet(0);
+                if (value != 0) {
+                    batch.put(productId, value);
+                }
+            });
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                productJdbcRepository.addAmounts(batch);
+            } catch (RuntimeException e) {
+                batch.forEach((productId, delta) -> pendingFor(productId).addAndGet(delta));
+                throw e;
+            }
+            eventPublisher.publishEvent(ProductChangedEvent.stockOf(batch.keySet()));
+        }
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        switch (event.getKind()) {
+            case SAVED:
+                for (Product product : event.getProducts()) {
+                    AtomicLong counter = available.get(product.getId());
+                    if (counter != null) {
+                        counter.set(product.getAmount() + pendingDelta(product.getId()));
+                    }
+                }
+                break;
+            case REMOVED:
+                event.getProductIds().forEach(productId -> {
+                    available.remove(productId);
+                    pending.remove(productId);
+                });
+                break;
+            default:
+                break;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        flusher.awaitTermination(flushIntervalMs * 10, TimeUnit.MILLISECONDS);
+        for (int attempt = 1; attempt <= SHUTDOWN_FLUSH_ATTEMPTS; attempt++) {
+            try {
+                flush();
+                if (pending.values().stream().allMatch(delta -> delta.get() == 0)) {
+                    log.info("Inventory engine drained all pending stock changes");
+                    return;
+                }
+            } catch (RuntimeException e) {
+                log.error("Inventory flush on shutdown failed (attempt {}): {}", attempt, e.getMessage());
+            }
+        }
+        log.error("Inventory engine stopped with unflushed stock changes: {}", pending);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Inventory flush failed, changes will be retried: {}", e.getMessage());
+        }
+    }
+
+    private AtomicLong counterFor(long productId) {
+        AtomicLong counter = available.get(productId);
+        if (counter != null) {
+            return counter;
+        }
+        Product product = productRepository.findById(productId).orElseThrow(
+                () -> new EntityNotFoundException("Product with id " + productId + " not found!"));
+        return available.computeIfAbsent(productId, id -> new AtomicLong(product.getAmount()));
+    }
+
+    private AtomicLong pendingFor(long productId) {
+        return pending.computeIfAbsent(productId, id -> new AtomicLong());
+    }
+
+    private void adjust(long productId, long quantity) {
+        counterFor(productId).addAndGet(quantity);
+        pendingFor(productId).addAndGet(quantity);
+    }
+
+    // The counters move at once, but the order that moved them may still roll back (a retried conflict, a
+    // failed group commit), so the net change of each transaction is kept and undone on rollback.
+    private void trackInTransaction(long productId, long quantity) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        RollbackUndo undo = TransactionSynchronizationManager.getSynchronizations().stream()
+                .filter(synchronization -> synchronization instanceof RollbackUndo
+                        && ((RollbackUndo) synchronization).engine() == this)
+                .map(RollbackUndo.class::cast)
+                .findFirst()
+                .orElseGet(() -> {
+                    RollbackUndo registered = new RollbackUndo();
+                    TransactionSynchronizationManager.registerSynchronization(registered);
+                    return registered;
+                });
+        undo.changes.merge(productId, quantity, Long::sum);
+    }
+
+    private class RollbackUndo extends TransactionSynchronizationAdapter {
+        private final Map<Long, Long> changes = new LinkedHashMap<>();
+
+        InventoryEngine engine() {
+            return InventoryEngine.this;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status != STATUS_ROLLED_BACK) {
+                return;
+            }
+            changes.forEach((productId, quantity) -> {
+                // A product removed in the meantime has nothing left to give back to.
+                if (quantity != 0 && available.containsKey(productId)) {
+                    adjust(productId, -quantity);
+                }
+            });
+        }
+    }
+}
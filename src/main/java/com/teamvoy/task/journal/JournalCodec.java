@@ -0,0 +1,65 @@
+package com.teamvoy.task.journal;
+
+import com.teamvoy.task.event.OrderChangedEvent;
+import com.teamvoy.task.model.Status;
+
+import java.nio.ByteBuffer;
+
+// Payload: kind byte, varint order id, varint timestamp, varint (user id + 1, 0 = unknown), a flags byte
+// (low nibble: status ordinal + 1, bit 4: sum present) and the sum as a varint of minor units. Typically
+// ~20 bytes.
+final class JournalCodec {
+    static final int MAX_PAYLOAD = 1 + 10 + 10 + 10 + 1 + 10;
+
+    private static final OrderChangedEvent.Kind[] KINDS = OrderChangedEvent.Kind.values();
+    private static final Status[] STATUSES = Status.values();
+    private static final int HAS_SUM = 0x10;
+
+    private JournalCodec() {
+    }
+
+    static void encode(ByteBuffer out, OrderChangedEvent.Kind kind, long orderId, long timestamp,
+                       Long userId, Status status, Long sum) {
+        out.put((byte) kind.ordinal());
+        putVarLong(out, orderId);
+        putVarLong(out, timestamp);
+        putVarLong(out, userId == null ? 0 : userId + 1);
+        int flags = status == null ? 0 : status.ordinal() + 1;
+        out.put((byte) (sum == null ? flags : flags | HAS_SUM));
+        if (sum != null) {
+            putVarLong(out, sum);
+        }
+    }
+
+    static JournalEntry decode(ByteBuffer in, long offset, long nextOffset) {
+        OrderChangedEvent.Kind kind = KINDS[in.get()];
+        long orderId = getVarLong(in);
+        long timestamp = getVarLong(in);
+        long user = getVarLong(in);
+        int flags = in.get();
+        int status = flags & 0x0F;
+        Long sum = (flags & HAS_SUM) != 0 ? getVarLong(in) : null;
+        return new JournalEntry(offset, nextOffset, kind, orderId, timestamp, user == 0 ? null : user - 1,
+                status == 0 ? null : STATUSES[status - 1], sum);
+    }
+
+    static void putVarLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static long getVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint in order journal");
+    }
+}
@@ -0,0 +1,25 @@
+package com.teamvoy.task.journal;
+
+import com.teamvoy.task.event.OrderChangedEvent;
+import com.teamvoy.task.model.Status;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * One decoded journal record. {@code userId}, {@code status} and {@code sum} are only known for events
+ * that carried the order itself (e.g. expiry only knows the order id). The sum is in minor units.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class JournalEntry {
+    private final long offset;
+    private final long nextOffset;
+    private final OrderChangedEvent.Kind kind;
+    private final long orderId;
+    private final long timestamp;
+    private final Long userId;
+    private final Status status;
+    private final Long sum;
+}
@@ -0,0 +1,126 @@
+package com.teamvoy.task.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * One memory-mapped, pre-sized journal file named after the offset of its first byte. Records are
+ * {@code [int length][int crc32][payload]}; the length is written last, so a zero length marks the end.
+ */
+final class JournalSegment {
+    static final int HEADER = 8;
+    static final String SUFFIX = ".journal";
+
+    private final long baseOffset;
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    // Only touched by the appending thread, under the journal's lock.
+    private final ByteBuffer writer;
+    private volatile int end;
+
+    private JournalSegment(long baseOffset, Path path, FileChannel channel, MappedByteBuffer buffer) {
+        this.baseOffset = baseOffset;
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.writer = buffer.duplicate();
+    }
+
+    static JournalSegment open(Path directory, long baseOffset, int capacity) throws IOException {
+        Path path = directory.resolve(fileName(baseOffset));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = Math.max(capacity, channel.size());
+        JournalSegment segment = new JournalSegment(baseOffset, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        segment.recover();
+        return segment;
+    }
+
+    static String fileName(long baseOffset) {
+        return String.format("%020d%s", baseOffset, SUFFIX);
+    }
+
+    static long baseOffsetOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    long baseOffset() {
+        return baseOffset;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    int end() {
+        return end;
+    }
+
+    long endOffset() {
+        return baseOffset + end;
+    }
+
+    boolean append(byte[] payload, int length, int crc) {
+        int position = end;
+        if (position + HEADER + length > buffer.capacity()) {
+            return false;
+        }
+        writer.position(position + HEADER);
+        writer.put(payload, 0, length);
+        buffer.putInt(position + 4, crc);
+        buffer.putInt(position, length);
+        end = position + HEADER + length;
+        return true;
+    }
+
+    /**
+     * Returns a view of the record at {@code position} with its position at the payload, or {@code null}
+     * if there is no intact record there.
+     */
+    ByteBuffer record(int position, int limit) {
+        if (position + HEADER > limit) {
+            return null;
+        }
+        int length = buffer.getInt(position);
+        if (length <= 0 || position + HEADER + length > limit) {
+            return null;
+        }
+        ByteBuffer payload = buffer.duplicate();
+        payload.limit(position + HEADER + length).position(position + HEADER);
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        return (int) crc.getValue() == buffer.getInt(position + 4) ? payload : null;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    void close() throws IOException {
+        channel.close();
+    }
+
+    // Finds the end of the last intact record. Anything after it is a write torn by a crash and is zeroed,
+    // otherwise stale but valid-looking records could resurface behind the records appended from now on.
+    private void recover() {
+        int position = 0;
+        ByteBuffer record;
+        while ((record = record(position, buffer.capacity())) != null) {
+            position = record.limit();
+        }
+        end = position;
+        int dirty = buffer.capacity();
+        while (dirty > position && buffer.get(dirty - 1) == 0) {
+            dirty--;
+        }
+        for (int i = position; i < dirty; i++) {
+            buffer.put(i, (byte) 0);
+        }
+    }
+}
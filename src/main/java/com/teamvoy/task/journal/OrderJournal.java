@@ -0,0 +1,282 @@
+package com.teamvoy.task.journal;
+
+import com.teamvoy.task.event.OrderChangedEvent;
+import com.teamvoy.task.model.Order;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of order lifecycle events in memory-mapped segment files. Appends only copy a
+ * small record into the mapping; a background flusher forces all records appended since its last
+ * run with one fsync (group commit), and callers that need durability can wait for it.
+ * Offsets are byte positions in the journal, so a reader can resume from any offset it was handed.
+ */
+@Slf4j
+@Component
+public class OrderJournal {
+    private static final int MIN_SEGMENT_BYTES = 1024;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentBytes;
+    private final long fsyncIntervalMs;
+
+    private final NavigableMap<Long, JournalSegment> segments = new ConcurrentSkipListMap<>();
+    private final Object appendLock = new Object();
+    private final ByteBuffer scratch = ByteBuffer.allocate(JournalCodec.MAX_PAYLOAD);
+    private final CRC32 crc = new CRC32();
+    private volatile JournalSegment active;
+
+    private final Object durableLock = new Object();
+    private final AtomicLong durableOffset = new AtomicLong();
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong fsyncs = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private ScheduledExecutorService flusher;
+
+    @Autowired
+    public OrderJournal(@Value("${teamvoy.order-journal.enabled:false}") boolean enabled,
+                        @Value("${teamvoy.order-journal.directory:journal}") String directory,
+                        @Value("${teamvoy.order-journal.segment-bytes:67108864}") int segmentBytes,
+                        @Value("${teamvoy.order-journal.fsync-interval-ms:10}") long fsyncIntervalMs) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentBytes = Math.max(MIN_SEGMENT_BYTES, segmentBytes);
+        this.fsyncIntervalMs = Math.max(1, fsyncIntervalMs);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> path.getFileName().toString().endsWith(JournalSegment.SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            JournalSegment segment = JournalSegment.open(directory, JournalSegment.baseOffsetOf(file), segmentBytes);
+            segments.put(segment.baseOffset(), segment);
+        }
+        if (segments.isEmpty()) {
+            segments.put(0L, JournalSegment.open(directory, 0, segmentBytes));
+        }
+        active = segments.lastEntry().getValue();
+        durableOffset.set(active.endOffset());
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-journal-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::syncQuietly, fsyncIntervalMs, fsyncIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Order journal opened in {} with {} segments, end offset {}", directory.toAbsolutePath(),
+                segments.size(), active.endOffset());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Events are published after commit, so only changes that really happened reach the journal.
+    @EventListener
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            append(event.getKind(), event.getOrderId(), event.getOrder());
+        } catch (RuntimeException e) {
+            failures.incrementAndGet();
+            log.error("Could not journal {} of order {}: {}", event.getKind(), event.getOrderId(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Appends one event and returns its offset. The record is visible to readers at once and durable
+     * after the next flush; see {@link #awaitDurable}.
+     */
+    public long append(OrderChangedEvent.Kind kind, long orderId, Order order) {
+        Long userId = order != null && order.getUser() != null ? order.getUser().getId() : null;
+        synchronized (appendLock) {
+            scratch.clear();
+            JournalCodec.encode(scratch, kind, orderId, System.currentTimeMillis(), userId,
+                    order != null ? order.getStatus() : null, order != null ? order.getSum() : null);
+            crc.reset();
+            crc.update(scratch.array(), 0, scratch.position());
+            int length = scratch.position();
+            int checksum = (int) crc.getValue();
+
+            long offset = active.endOffset();
+            if (!active.append(scratch.array(), length, checksum)) {
+                roll();
+                offset = active.endOffset();
+                active.append(scratch.array(), length, checksum);
+            }
+            appended.incrementAndGet();
+            return offset;
+        }
+    }
+
+    /**
+     * Blocks until the record at {@code offset} has been forced to disk or the timeout passes.
+     */
+    public boolean awaitDurable(long offset, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        synchronized (durableLock) {
+            while (durableOffset.get() <= offset) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                durableLock.wait(remaining);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Forces everything appended so far with a single fsync.
+     */
+    public void sync() {
+        JournalSegment segment = active;
+        long end = segment.endOffset();
+        if (end <= durableOffset.get()) {
+            return;
+        }
+        segment.force();
+        fsyncs.incrementAndGet();
+        markDurable(end);
+    }
+
+    public long endOffset() {
+        return enabled ? active.endOffset() : 0;
+    }
+
+    public List<JournalEntry> read(long fromOffset, int maxEntries) {
+        List<JournalEntry> entries = new ArrayList<>();
+        replay(fromOffset, maxEntries, entries::add);
+        return entries;
+    }
+
+    /**
+     * Hands up to {@code maxEntries} records starting at {@code fromOffset} to the consumer, in append
+     * order, and returns the offset to continue from.
+     */
+    public long replay(long fromOffset, int maxEntries, Consumer<JournalEntry> consumer) {
+        if (!enabled) {
+            return fromOffset;
+        }
+        Map.Entry<Long, JournalSegment> floor = segments.floorEntry(fromOffset);
+        JournalSegment segment = floor != null ? floor.getValue() : segments.firstEntry().getValue();
+        int position = (int) (Math.max(fromOffset, segment.baseOffset()) - segment.baseOffset());
+        int replayed = 0;
+        while (replayed < maxEntries) {
+            int limit = segment.end();
+            if (position >= limit) {
+                Map.Entry<Long, JournalSegment> next = segments.higherEntry(segment.baseOffset());
+                if (next == null) {
+                    break;
+                }
+                segment = next.getValue();
+                position = 0;
+                continue;
+            }
+            ByteBuffer payload = segment.record(position, limit);
+            if (payload == null) {
+                throw new IllegalArgumentException("No journal record at offset " + (segment.baseOffset() + position));
+            }
+            consumer.accept(JournalCodec.decode(payload, segment.baseOffset() + position,
+                    segment.baseOffset() + payload.limit()));
+            position = payload.limit();
+            replayed++;
+        }
+        return segment.baseOffset() + position;
+    }
+
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("appended", appended.get());
+        stats.put("fsyncs", fsyncs.get());
+        stats.put("failures", failures.get());
+        stats.put("segments", (long) segments.size());
+        stats.put("endOffset", endOffset());
+        stats.put("durableOffset", durableOffset.get());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        flusher.awaitTermination(fsyncIntervalMs * 10, TimeUnit.MILLISECONDS);
+        synchronized (appendLock) {
+            sync();
+            for (JournalSegment segment : segments.values()) {
+                try {
+                    segment.close();
+                } catch (IOException e) {
+                    log.warn("Could not close journal segment {}: {}", segment.path(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Called under appendLock. The full segment is forced before the next one takes appends, so the
+    // durable offset never points past a gap.
+    private void roll() {
+        JournalSegment full = active;
+        full.force();
+        fsyncs.incrementAndGet();
+        try {
+            JournalSegment next = JournalSegment.open(directory, full.endOffset(), segmentBytes);
+            segments.put(next.baseOffset(), next);
+            active = next;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not roll the order journal", e);
+        }
+        markDurable(full.endOffset());
+    }
+
+    private void markDurable(long offset) {
+        durableOffset.accumulateAndGet(offset, Math::max);
+        synchronized (durableLock) {
+            durableLock.notifyAll();
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            log.error("Order journal fsync failed: {}", e.getMessage(), e);
+        }
+    }
+}
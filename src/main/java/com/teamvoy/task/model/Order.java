@@ -1,36 +1,60 @@
 package com.teamvoy.task.model;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.teamvoy.task.money.MoneyConverter;
+import com.teamvoy.task.money.MoneyDeserializer;
+import com.teamvoy.task.money.MoneySerializer;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_status_created", columnList = "status, local_date_time"),
+        @Index(name = "idx_orders_user_status_created", columnList = "user_id, status, local_date_time")})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_seq")
+    @SequenceGenerator(name = "order_seq", sequenceName = "order_sequence", allocationSize = 50)
     private Long id;
 
+    @Column(name = "local_date_time")
     private LocalDateTime localDateTime;
 
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "user_id")
     private User user;
 
+    // The lines own their order_id, so the collection never writes it. Loading several orders fetches all of
+    // their lines with one subselect instead of one query per order.
     @OneToMany(fetch = FetchType.EAGER)
-    @JoinColumn(name = "ordered_product_id")
+    @JoinColumn(name = "order_id", insertable = false, updatable = false)
+    @OrderBy("id.lineNo")
+    @Fetch(FetchMode.SUBSELECT)
     private List<OrderedProduct> orderedProducts;
 
-    private double sum;
+    @Convert(converter = MoneyConverter.class)
+    @JsonSerialize(using = MoneySerializer.class)
+    @JsonDeserialize(using = MoneyDeserializer.class)
+    private long sum;
 
     private Status status;
+
+    @Column(name = "paid_at")
+    private LocalDateTime paidAt;
+
+    @Version
+    private long version;
 }
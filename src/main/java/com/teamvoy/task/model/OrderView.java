@@ -0,0 +1,106 @@
+package com.teamvoy.task.model;
+
+import com.teamvoy.task.money.MoneyConverter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Read model of an order: one row per order with the user summary and the lines (as JSON) embedded, so
+ * order reads never join. Written by OrderServiceImpl in the same transaction as the order itself.
+ */
+@Entity
+@Table(name = "order_views", indexes = @Index(name = "idx_order_views_user", columnList = "user_id, order_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class OrderView {
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final TypeReference<List<OrderedProduct>> LINES = new TypeReference<List<OrderedProduct>>() {
+    };
+
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "local_date_time")
+    private LocalDateTime localDateTime;
+
+    @Convert(converter = MoneyConverter.class)
+    private long sum;
+
+    private Status status;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "user_first_name")
+    private String userFirstName;
+
+    @Column(name = "user_last_name")
+    private String userLastName;
+
+    @Column(name = "user_email")
+    private String userEmail;
+
+    @Column(name = "user_role")
+    private String userRole;
+
+    @Column(name = "lines_json", columnDefinition = "TEXT")
+    private String linesJson;
+
+    // Bumped on every change of the row, including the bulk updates; the order's ETag is derived from it.
+    @Version
+    private long version;
+
+    public static OrderView of(Order order) {
+        OrderView view = new OrderView();
+        view.setOrderId(order.getId());
+        view.copyFrom(order);
+        return view;
+    }
+
+    public void copyFrom(Order order) {
+        setLocalDateTime(order.getLocalDateTime());
+        setSum(order.getSum());
+        setStatus(order.getStatus());
+        if (order.getUser() != null) {
+            setUser(order.getUser());
+        }
+        List<OrderedProduct> lines = order.getOrderedProducts() == null ? List.of() : order.getOrderedProducts().stream()
+                .map(line -> new OrderedProduct(line.getId(), line.getProductId(), line.getName(), line.getAmount(), line.getPrice()))
+                .collect(Collectors.toList());
+        try {
+            setLinesJson(JSON.writeValueAsString(lines));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode the lines of order " + order.getId(), e);
+        }
+    }
+
+    public void setUser(User user) {
+        this.userId = user.getId();
+        this.userFirstName = user.getFirstName();
+        this.userLastName = user.getLastName();
+        this.userEmail = user.getEmail();
+        this.userRole = user.getRole() != null ? user.getRole().getName() : null;
+    }
+
+    public List<OrderedProduct> lines() {
+        if (linesJson == null) {
+            return List.of();
+        }
+        try {
+            return JSON.readValue(linesJson, LINES);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not decode the lines of order " + orderId, e);
+        }
+    }
+}
@@ -1,29 +1,62 @@
 package com.teamvoy.task.model;
 
-import lombok.AllArgsConstructor;
-import lombok.Getter;
-import lombok.NoArgsConstructor;
-import lombok.Setter;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.teamvoy.task.money.MoneyConverter;
+import com.teamvoy.task.money.MoneyDeserializer;
+import com.teamvoy.task.money.MoneySerializer;
+import lombok.*;
 
 import javax.persistence.*;
+import java.io.Serializable;
 
+/**
+ * One line of an order, keyed by (order_id, line_no). The key is assigned once the order has its id, so new
+ * lines are inserted with {@code persist} in one JDBC batch instead of being merged one by one.
+ */
 @Entity
-@Table(name = "ordere_products")
+@Table(name = "order_lines", indexes = {
+        @Index(name = "idx_order_lines_order", columnList = "order_id"),
+        @Index(name = "idx_order_lines_product", columnList = "product_id")})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class OrderedProduct {
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
 
     @Column(nullable = false)
     private String name;
 
-    @Column(nullable = false)
+    @Column(name = "quantity", nullable = false)
     private long amount;
 
     @Column(nullable = false)
-    private double price;
+    @Convert(converter = MoneyConverter.class)
+    @JsonSerialize(using = MoneySerializer.class)
+    @JsonDeserialize(using = MoneyDeserializer.class)
+    private long price;
+
+    // A line that is not attached to an order yet.
+    public OrderedProduct(Long productId, String name, long amount, long price) {
+        this(null, productId, name, amount, price);
+    }
+
+    @Embeddable
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        @Column(name = "order_id")
+        private Long orderId;
+
+        @Column(name = "line_no")
+        private int lineNo;
+    }
 }
@@ -1,5 +1,10 @@
 package com.teamvoy.task.model;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.teamvoy.task.money.MoneyConverter;
+import com.teamvoy.task.money.MoneyDeserializer;
+import com.teamvoy.task.money.MoneySerializer;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -14,8 +19,12 @@ import javax.persistence.*;
 @Getter
 @Setter
 public class Product {
+    // Also the block size ProductJdbcRepository reserves per sequence call.
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_sequence", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false)
@@ -25,5 +34,15 @@ public class Product {
     private long amount;
 
     @Column(nullable = false)
-    private double price;
+    @Convert(converter = MoneyConverter.class)
+    @JsonSerialize(using = MoneySerializer.class)
+    @JsonDeserialize(using = MoneyDeserializer.class)
+    private long price;
+
+    @Version
+    private long version;
+
+    public Product(Long id, String name, long amount, long price) {
+        this(id, name, amount, price, 0);
+    }
 }
@@ -0,0 +1,41 @@
+package com.teamvoy.task.model;
+
+import com.teamvoy.task.money.MoneyConverter;
+import lombok.*;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "product_daily_sales")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductDailySales {
+    @EmbeddedId
+    private Key id;
+
+    private long units;
+
+    @Convert(converter = MoneyConverter.class)
+    private long revenue;
+
+    @Column(name = "order_count")
+    private long orderCount;
+
+    @Embeddable
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        @Column(name = "product_id")
+        private Long productId;
+
+        @Column(name = "sales_day")
+        private LocalDate salesDay;
+    }
+}
@@ -16,7 +16,8 @@ import javax.validation.constraints.NotBlank;
 @Table(name = "roles")
 public class Role implements GrantedAuthority {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "role_seq")
+    @SequenceGenerator(name = "role_seq", sequenceName = "role_sequence", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "The 'name' cannot be empty")
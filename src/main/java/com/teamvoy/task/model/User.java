@@ -1,10 +1,16 @@
 package com.teamvoy.task.model;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.teamvoy.task.money.MoneyConverter;
+import com.teamvoy.task.money.MoneyDeserializer;
+import com.teamvoy.task.money.MoneySerializer;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.hibernate.Hibernate;
+import org.hibernate.annotations.BatchSize;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
@@ -15,6 +21,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "users")
+@BatchSize(size = 50)
 @Getter
 @Setter
 @AllArgsConstructor
@@ -25,8 +32,7 @@ public class User implements UserDetails {
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
     @SequenceGenerator(name = "user_seq",
             sequenceName = "user_sequence",
-            initialValue = 4,
-            allocationSize = 1)
+            allocationSize = 50)
     private Long id;
 
     @Pattern(regexp = "[A-Z][a-z]+",
@@ -55,15 +61,21 @@ public class User implements UserDetails {
     private String password;
 
     @Column
-    private double balance;
+    @Convert(converter = MoneyConverter.class)
+    @JsonSerialize(using = MoneySerializer.class)
+    @JsonDeserialize(using = MoneyDeserializer.class)
+    private long balance;
 
-    @OneToMany(fetch = FetchType.EAGER, mappedBy = "user")
+    @OneToMany(fetch = FetchType.LAZY, mappedBy = "user")
     private List<Order> orders;
 
     @ManyToOne
     @JoinColumn(name = "role_id")
     private Role role;
 
+    @Version
+    private long version;
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return List.of(role);
@@ -0,0 +1,67 @@
+package com.teamvoy.task.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money as a plain {@code long} count of minor units (cents), so sums and balances are exact and the
+ * arithmetic on the order path allocates nothing. Overflow throws instead of wrapping.
+ * {@link BigDecimal} is only used at the edges: the database columns and decimal text.
+ */
+public final class Money {
+    public static final int SCALE = 2;
+
+    private static final long MINOR_PER_MAJOR = 100;
+
+    private Money() {
+    }
+
+    public static long ofMajor(long major) {
+        return Math.multiplyExact(major, MINOR_PER_MAJOR);
+    }
+
+    public static long add(long left, long right) {
+        return Math.addExact(left, right);
+    }
+
+    public static long subtract(long left, long right) {
+        return Math.subtractExact(left, right);
+    }
+
+    public static long times(long price, long quantity) {
+        return Math.multiplyExact(price, quantity);
+    }
+
+    /**
+     * Adds {@code price * quantity} to {@code total}; the step used to build order sums line by line.
+     */
+    public static long addLine(long total, long price, long quantity) {
+        return Math.addExact(total, Math.multiplyExact(price, quantity));
+    }
+
+    public static BigDecimal toDecimal(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+
+    // Amounts with more than two decimals are rounded half-even.
+    public static long fromDecimal(BigDecimal value) {
+        return value.setScale(SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Parses decimal text such as {@code "12"}, {@code "-0.5"} or {@code "1999.99"}.
+     *
+     * @throws NumberFormatException if the text is not a decimal number or does not fit
+     */
+    public static long parse(String text) {
+        try {
+            return fromDecimal(new BigDecimal(text.trim()));
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount out of range: " + text);
+        }
+    }
+
+    public static String format(long minor) {
+        return toDecimal(minor).toPlainString();
+    }
+}
@@ -0,0 +1,22 @@
+package com.teamvoy.task.money;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.math.BigDecimal;
+
+/**
+ * Keeps money columns as decimal amounts (12.34) while the entities hold minor units, so the schema, the
+ * seed data and SQL aggregates read the same as before. A NULL column reads as zero.
+ */
+@Converter
+public class MoneyConverter implements AttributeConverter<Long, BigDecimal> {
+    @Override
+    public BigDecimal convertToDatabaseColumn(Long minor) {
+        return minor == null ? null : Money.toDecimal(minor);
+    }
+
+    @Override
+    public Long convertToEntityAttribute(BigDecimal amount) {
+        return amount == null ? 0L : Money.fromDecimal(amount);
+    }
+}
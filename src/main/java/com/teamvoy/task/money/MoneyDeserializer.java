@@ -0,0 +1,38 @@
+package com.teamvoy.task.money;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Reads a JSON number or numeric string as minor units. The text is parsed as a decimal, never through
+ * a double, so {@code 0.1} becomes exactly 10.
+ */
+public class MoneyDeserializer extends StdDeserializer<Long> {
+    public MoneyDeserializer() {
+        super(Long.class);
+    }
+
+    @Override
+    public Long deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT
+                || token == JsonToken.VALUE_STRING) {
+            try {
+                return Money.parse(parser.getText());
+            } catch (NumberFormatException e) {
+                return (Long) context.handleWeirdStringValue(Long.class, parser.getText(), "not a valid amount");
+            }
+        }
+        return (Long) context.handleUnexpectedToken(Long.class, parser);
+    }
+
+    // A null reaches primitive fields, which cannot hold it.
+    @Override
+    public Long getNullValue(DeserializationContext context) {
+        return 0L;
+    }
+}
@@ -0,0 +1,21 @@
+package com.teamvoy.task.money;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes minor units as a JSON decimal number, so clients keep seeing {@code 35000.00} rather than cents.
+ */
+public class MoneySerializer extends StdSerializer<Long> {
+    public MoneySerializer() {
+        super(Long.class);
+    }
+
+    @Override
+    public void serialize(Long minor, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeNumber(Money.toDecimal(minor));
+    }
+}
@@ -0,0 +1,94 @@
+package com.teamvoy.task.repository;
+
+import com.teamvoy.task.model.Status;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+@Repository
+public class OrderJdbcRepository {
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public OrderJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Locks up to {@code limit} of the oldest unpaid orders of one partition ({@code id mod partitions})
+     * created at or before the cutoff (served by the (status, local_date_time) index) and returns their ids.
+     */
+    public List<Long> lockUnpaidCreatedBefore(LocalDateTime cutoff, int partitions, int partition, int limit) {
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM orders WHERE status = ? AND local_date_time <= ? AND MOD(id, ?) = ?"
+                        + " ORDER BY local_date_time LIMIT ? FOR UPDATE",
+                Long.class, Status.NOT_PAID.ordinal(), Timestamp.valueOf(cutoff), partitions, partition, limit);
+    }
+
+    /**
+     * Locks the given orders that are still unpaid and returns their ids.
+     */
+    public List<Long> lockUnpaid(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return List.of();
+        }
+        List<Object> args = new ArrayList<>(orderIds);
+        args.add(Status.NOT_PAID.ordinal());
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM orders WHERE id IN (" + placeholders(orderIds.size()) + ") AND status = ? ORDER BY id FOR UPDATE",
+                Long.class, args.toArray());
+    }
+
+    public Map<Long, Long> sumLinesByProduct(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Long> amounts = new LinkedHashMap<>();
+        jdbcTemplate.query(
+                "SELECT product_id, SUM(quantity) FROM order_lines WHERE order_id IN (" + placeholders(orderIds.size()) + ")"
+                        + " GROUP BY product_id ORDER BY product_id",
+                resultSet -> {
+                    amounts.put(resultSet.getLong(1), resultSet.getLong(2));
+                },
+                orderIds.toArray());
+        return amounts;
+    }
+
+    /**
+     * Puts every line of the given orders back on its product with one aggregated UPDATE.
+     */
+    public int restock(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        String in = placeholders(orderIds.size());
+        List<Object> args = new ArrayList<>(orderIds);
+        args.addAll(orderIds);
+        return jdbcTemplate.update(
+                "UPDATE products p SET amount = amount + (SELECT SUM(l.quantity) FROM order_lines l"
+                        + " WHERE l.product_id = p.id AND l.order_id IN (" + in + ")), version = version + 1"
+                        + " WHERE p.id IN (SELECT l.product_id FROM order_lines l WHERE l.order_id IN (" + in + "))",
+                args.toArray());
+    }
+
+    /**
+     * Bulk-deletes the given orders together with their lines and read-model rows.
+     */
+    public int deleteAll(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        String in = placeholders(orderIds.size());
+        jdbcTemplate.update("DELETE FROM order_lines WHERE order_id IN (" + in + ")", orderIds.toArray());
+        jdbcTemplate.update("DELETE FROM order_views WHERE order_id IN (" + in + ")", orderIds.toArray());
+        return jdbcTemplate.update("DELETE FROM orders WHERE id IN (" + in + ")", orderIds.toArray());
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -2,14 +2,25 @@ package com.teamvoy.task.repository;
 
 import com.teamvoy.task.model.Order;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
-public interface OrderRepository extends JpaRepository<Order, Long> {
-    @Query("SELECT o FROM Order o WHERE o.status = com.teamvoy.task.model.Status.NOT_PAID")
-    List<Order> findUnpaidOrders();
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderSearchRepository {
+    // Only the given partitions (id mod partitions), the same split the expiry sweep uses.
+    @Query("SELECT o.id, o.localDateTime FROM Order o WHERE o.status = com.teamvoy.task.model.Status.NOT_PAID"
+            + " AND MOD(o.id, :partitions) IN :partitionNos")
+    List<Object[]> findUnpaidOrderTimes(@Param("partitions") int partitions,
+                                        @Param("partitionNos") Collection<Integer> partitionNos);
 
-    @Query(value = "SELECT * FROM orders where user_id = ?", nativeQuery = true)
-    List<Order> findByUserId(long userId);
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Order o SET o.status = com.teamvoy.task.model.Status.PAID, o.version = o.version + 1,"
+            + " o.paidAt = :paidAt WHERE o.id = :id AND o.status = com.teamvoy.task.model.Status.NOT_PAID")
+    int markPaid(@Param("id") long id, @Param("paidAt") LocalDateTime paidAt);
 }
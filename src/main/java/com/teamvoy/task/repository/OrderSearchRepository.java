@@ -0,0 +1,12 @@
+package com.teamvoy.task.repository;
+
+import com.teamvoy.task.dto.order.OrderSearchQuery;
+import com.teamvoy.task.model.Order;
+
+import java.util.List;
+
+public interface OrderSearchRepository {
+    List<Order> search(OrderSearchQuery query, int maxResults);
+
+    List<Long> searchIds(OrderSearchQuery query, int maxResults);
+}
@@ -0,0 +1,111 @@
+package com.teamvoy.task.repository;
+
+import com.teamvoy.task.dto.order.OrderSearchQuery;
+import com.teamvoy.task.model.Order;
+import com.teamvoy.task.money.Money;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Builds the search from only the filters that are set, so each query can be served by the
+ * (user_id, status, local_date_time) or (status, local_date_time) index, and pages with a keyset
+ * cursor instead of an offset. Matching ids are found first ({@link #searchIds}); the orders are then loaded
+ * in one query.
+ */
+public class OrderSearchRepositoryImpl implements OrderSearchRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Order> search(OrderSearchQuery query, int maxResults) {
+        List<Long> ids = searchIds(query, maxResults);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Order> orders = entityManager.createQuery(
+                        "SELECT DISTINCT o FROM Order o JOIN FETCH o.user LEFT JOIN FETCH o.orderedProducts WHERE o.id IN :ids",
+                        Order.class)
+                .setParameter("ids", ids)
+                .getResultList().stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+        return ids.stream().map(orders::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Long> searchIds(OrderSearchQuery query, int maxResults) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> criteria = cb.createQuery(Long.class);
+        Root<Order> order = criteria.from(Order.class);
+        Path<Long> id = order.get("id");
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (query.getUserId() != null) {
+            predicates.add(cb.equal(order.get("user").get("id"), query.getUserId()));
+        }
+        if (query.getStatus() != null) {
+            predicates.add(cb.equal(order.get("status"), query.getStatus()));
+        }
+        if (query.getFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(order.get("localDateTime"), query.getFrom()));
+        }
+        if (query.getTo() != null) {
+            predicates.add(cb.lessThan(order.get("localDateTime"), query.getTo()));
+        }
+        if (query.getMinSum() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(order.get("sum"), Money.fromDecimal(query.getMinSum())));
+        }
+        if (query.getMaxSum() != null) {
+            predicates.add(cb.lessThanOrEqualTo(order.get("sum"), Money.fromDecimal(query.getMaxSum())));
+        }
+
+        boolean descending = query.descending();
+        switch (query.sortField()) {
+            case OrderSearchQuery.BY_DATE:
+                Path<LocalDateTime> date = order.get("localDateTime");
+                if (query.getCursor() != null) {
+                    predicates.add(after(cb, date, (LocalDateTime) query.cursorKey(), id, query.cursorId(), descending));
+                }
+                criteria.orderBy(direction(cb, date, descending), direction(cb, id, descending));
+                break;
+            case OrderSearchQuery.BY_SUM:
+                Path<Long> sum = order.get("sum");
+                if (query.getCursor() != null) {
+                    predicates.add(after(cb, sum, (Long) query.cursorKey(), id, query.cursorId(), descending));
+                }
+                criteria.orderBy(direction(cb, sum, descending), direction(cb, id, descending));
+                break;
+            default:
+                if (query.getCursor() != null) {
+                    predicates.add(descending ? cb.lessThan(id, query.cursorId()) : cb.greaterThan(id, query.cursorId()));
+                }
+                criteria.orderBy(direction(cb, id, descending));
+                break;
+        }
+
+        criteria.select(id).where(predicates.toArray(new Predicate[0]));
+        return entityManager.createQuery(criteria).setMaxResults(maxResults).getResultList();
+    }
+
+    // Keyset condition "(key, id) comes after (cursorKey, cursorId)" in the requested direction.
+    private static <Y extends Comparable<? super Y>> Predicate after(CriteriaBuilder cb, Path<Y> key, Y cursorKey,
+                                                                    Path<Long> id, long cursorId, boolean descending) {
+        if (descending) {
+            return cb.or(cb.lessThan(key, cursorKey), cb.and(cb.equal(key, cursorKey), cb.lessThan(id, cursorId)));
+        }
+        return cb.or(cb.greaterThan(key, cursorKey), cb.and(cb.equal(key, cursorKey), cb.greaterThan(id, cursorId)));
+    }
+
+    private static javax.persistence.criteria.Order direction(CriteriaBuilder cb, Expression<?> expression, boolean descending) {
+        return descending ? cb.desc(expression) : cb.asc(expression);
+    }
+}
@@ -0,0 +1,47 @@
+package com.teamvoy.task.repository;
+
+import com.teamvoy.task.model.OrderView;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+public interface OrderViewRepository extends JpaRepository<OrderView, Long> {
+    List<OrderView> findByOrderIdGreaterThanOrderByOrderIdAsc(long orderId, Pageable pageable);
+
+    List<OrderView> findByUserIdOrderByOrderIdAsc(long userId);
+
+    List<OrderView> findByUserIdInOrderByOrderIdAsc(Collection<Long> userIds);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("SELECT v FROM OrderView v ORDER BY v.orderId")
+    Stream<OrderView> streamAll();
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE OrderView v SET v.status = com.teamvoy.task.model.Status.PAID, v.version = v.version + 1 WHERE v.orderId = :id")
+    int markPaid(@Param("id") long id);
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM OrderView v WHERE v.orderId = :id")
+    int remove(@Param("id") long id);
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE OrderView v SET v.userFirstName = :firstName, v.userLastName = :lastName, v.userEmail = :email,"
+            + " v.userRole = :role, v.version = v.version + 1 WHERE v.userId = :userId")
+    int updateUserSummary(@Param("userId") long userId, @Param("firstName") String firstName,
+                          @Param("lastName") String lastName, @Param("email") String email, @Param("role") String role);
+}
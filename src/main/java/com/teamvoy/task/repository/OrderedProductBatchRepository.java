@@ -0,0 +1,9 @@
+package com.teamvoy.task.repository;
+
+import com.teamvoy.task.model.OrderedProduct;
+
+import java.util.List;
+
+public interface OrderedProductBatchRepository {
+    void insertAll(List<OrderedProduct> lines);
+}
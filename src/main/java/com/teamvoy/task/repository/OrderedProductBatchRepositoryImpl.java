@@ -0,0 +1,21 @@
+package com.teamvoy.task.repository;
+
+import com.teamvoy.task.model.OrderedProduct;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+/**
+ * Lines come with their (order_id, line_no) key already set, which makes {@code save} merge them and select
+ * each one first. New lines are persisted instead, so they are written as one batch of INSERTs at flush.
+ */
+public class OrderedProductBatchRepositoryImpl implements OrderedProductBatchRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void insertAll(List<OrderedProduct> lines) {
+        lines.forEach(entityManager::persist);
+    }
+}
@@ -3,5 +3,5 @@ package com.teamvoy.task.repository;
 import com.teamvoy.task.model.OrderedProduct;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-public interface OrderedProductRepository extends JpaRepository<OrderedProduct, Long> {
+public interface OrderedProductRepository extends JpaRepository<OrderedProduct, OrderedProduct.Key>, OrderedProductBatchRepository {
 }
@@ -0,0 +1,79 @@
+package com.teamvoy.task.repository;
+
+import com.teamvoy.task.model.Product;
+import com.teamvoy.task.money.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Repository
+public class ProductJdbcRepository {
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ProductJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the products in one JDBC batch and sets their ids. Ids are taken the way Hibernate's
+     * pooled-lo optimizer takes them: every sequence value reserves the next
+     * {@link Product#ID_ALLOCATION_SIZE} ids, so this and JPA inserts can share product_sequence.
+     */
+    public int[] insertAll(List<Product> products) {
+        long nextId = 0;
+        long blockEnd = 0;
+        List<Object[]> rows = new ArrayList<>(products.size());
+        for (Product product : products) {
+            if (nextId == blockEnd) {
+                nextId = jdbcTemplate.queryForObject("SELECT nextval('product_sequence')", Long.class);
+                blockEnd = nextId + Product.ID_ALLOCATION_SIZE;
+            }
+            product.setId(nextId++);
+            rows.add(new Object[]{product.getId(), product.getName(), product.getAmount(), Money.toDecimal(product.getPrice())});
+        }
+        return jdbcTemplate.batchUpdate("INSERT INTO products (id, name, amount, price, version) VALUES (?, ?, ?, ?, 0)", rows);
+    }
+
+    public int[] addAmounts(Map<Long, Long> amountsById) {
+        return jdbcTemplate.batchUpdate(
+                "UPDATE products SET amount = amount + ?, version = version + 1 WHERE id = ?",
+                amountsById.entrySet().stream()
+                        .map(entry -> new Object[]{entry.getValue(), entry.getKey()})
+                        .collect(Collectors.toList()));
+    }
+
+    /**
+     * Takes each amount off its product in one JDBC batch, guarded so that no row can go below zero.
+     * Returns the ids whose guard failed (or that do not exist); their rows are left untouched.
+     */
+    public Set<Long> subtractAmounts(Map<Long, Long> amountsById) {
+        List<Long> ids = new ArrayList<>(amountsById.keySet());
+        int[] updated = jdbcTemplate.batchUpdate(
+                "UPDATE products SET amount = amount - ?, version = version + 1 WHERE id = ? AND amount >= ?",
+                ids.stream()
+                        .map(id -> new Object[]{amountsById.get(id), id, amountsById.get(id)})
+                        .collect(Collectors.toList()));
+        Set<Long> rejected = new LinkedHashSet<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                rejected.add(ids.get(i));
+            }
+        }
+        return rejected;
+    }
+
+    public List<Product> findAllById(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(
+                "SELECT id, name, amount, price, version FROM products WHERE id IN (" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")",
+                (resultSet, rowNum) -> new Product(resultSet.getLong("id"), resultSet.getString("name"),
+                        resultSet.getLong("amount"), Money.fromDecimal(resultSet.getBigDecimal("price")), resultSet.getLong("version")),
+                ids.toArray());
+    }
+}
@@ -0,0 +1,131 @@
+package com.teamvoy.task.repository;
+
+import com.teamvoy.task.dto.report.SalesTotal;
+import com.teamvoy.task.model.Order;
+import com.teamvoy.task.model.OrderedProduct;
+import com.teamvoy.task.model.Status;
+import com.teamvoy.task.money.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Repository
+public class SalesAggregateJdbcRepository {
+    private static final String DAY_OF_PAYMENT = "CAST(COALESCE(o.paid_at, o.local_date_time) AS DATE)";
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate savepoint;
+
+    @Autowired
+    public SalesAggregateJdbcRepository(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.savepoint = new TransactionTemplate(transactionManager);
+        this.savepoint.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+    }
+
+    /**
+     * Adds a freshly paid order to the product and user counters of the given day.
+     */
+    public void record(Order order, LocalDate day) {
+        // Per product: {units, revenue in minor units}.
+        Map<Long, long[]> salesByProduct = new TreeMap<>();
+        for (OrderedProduct line : order.getOrderedProducts()) {
+            long productId = line.getProductId();
+            long[] sales = salesByProduct.computeIfAbsent(productId, id -> new long[2]);
+            sales[0] += line.getAmount();
+            sales[1] = Money.addLine(sales[1], line.getPrice(), line.getAmount());
+        }
+        // Product rows are touched in id order so that concurrent payments lock them in the same order.
+        salesByProduct.forEach((productId, sales) -> addProductSales(productId, day, sales[0], sales[1]));
+        long units = salesByProduct.values().stream().mapToLong(sales -> sales[0]).sum();
+        addUserSales(order.getUser().getId(), day, units, order.getSum());
+    }
+
+    public void addProductSales(long productId, LocalDate day, long units, long revenue) {
+        upsert("UPDATE product_daily_sales SET units = units + ?, revenue = revenue + ?, order_count = order_count + 1"
+                        + " WHERE product_id = ? AND sales_day = ?",
+                "INSERT INTO product_daily_sales (product_id, sales_day, units, revenue, order_count) VALUES (?, ?, ?, ?, 1)",
+                new Object[]{units, Money.toDecimal(revenue), productId, Date.valueOf(day)},
+                new Object[]{productId, Date.valueOf(day), units, Money.toDecimal(revenue)});
+    }
+
+    public void addUserSales(long userId, LocalDate day, long units, long revenue) {
+        upsert("UPDATE user_daily_sales SET units = units + ?, revenue = revenue + ?, order_count = order_count + 1"
+                        + " WHERE user_id = ? AND sales_day = ?",
+                "INSERT INTO user_daily_sales (user_id, sales_day, units, revenue, order_count) VALUES (?, ?, ?, ?, 1)",
+                new Object[]{units, Money.toDecimal(revenue), userId, Date.valueOf(day)},
+                new Object[]{userId, Date.valueOf(day), units, Money.toDecimal(revenue)});
+    }
+
+    /**
+     * Recomputes both aggregate tables from all paid orders with two INSERT ... SELECT statements.
+     */
+    public void rebuild() {
+        jdbcTemplate.update("DELETE FROM product_daily_sales");
+        jdbcTemplate.update("DELETE FROM user_daily_sales");
+        jdbcTemplate.update(
+                "INSERT INTO product_daily_sales (product_id, sales_day, units, revenue, order_count)"
+                        + " SELECT l.product_id, " + DAY_OF_PAYMENT + ", SUM(l.quantity), SUM(l.quantity * l.price),"
+                        + " COUNT(DISTINCT o.id)"
+                        + " FROM orders o JOIN order_lines l ON l.order_id = o.id WHERE o.status = ?"
+                        + " GROUP BY l.product_id, " + DAY_OF_PAYMENT,
+                Status.PAID.ordinal());
+        jdbcTemplate.update(
+                "INSERT INTO user_daily_sales (user_id, sales_day, units, revenue, order_count)"
+                        + " SELECT o.user_id, " + DAY_OF_PAYMENT + ", SUM(l.quantity), SUM(l.quantity * l.price), COUNT(DISTINCT o.id)"
+                        + " FROM orders o JOIN order_lines l ON l.order_id = o.id WHERE o.status = ?"
+                        + " GROUP BY o.user_id, " + DAY_OF_PAYMENT,
+                Status.PAID.ordinal());
+    }
+
+    public List<SalesTotal> totalsByProduct(LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(
+                "SELECT product_id, SUM(units), SUM(revenue), SUM(order_count) FROM product_daily_sales"
+                        + " WHERE sales_day BETWEEN ? AND ? GROUP BY product_id ORDER BY SUM(revenue) DESC, product_id",
+                (resultSet, rowNum) -> new SalesTotal(resultSet.getLong(1), null, null,
+                        resultSet.getLong(2), Money.fromDecimal(resultSet.getBigDecimal(3)), resultSet.getLong(4)),
+                Date.valueOf(from), Date.valueOf(to));
+    }
+
+    public List<SalesTotal> totalsByUser(LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(
+                "SELECT user_id, SUM(units), SUM(revenue), SUM(order_count) FROM user_daily_sales"
+                        + " WHERE sales_day BETWEEN ? AND ? GROUP BY user_id ORDER BY SUM(revenue) DESC, user_id",
+                (resultSet, rowNum) -> new SalesTotal(null, resultSet.getLong(1), null,
+                        resultSet.getLong(2), Money.fromDecimal(resultSet.getBigDecimal(3)), resultSet.getLong(4)),
+                Date.valueOf(from), Date.valueOf(to));
+    }
+
+    // Daily totals come from the per-user table: every order has exactly one user, so order counts add up.
+    public List<SalesTotal> totalsByDay(LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(
+                "SELECT sales_day, SUM(units), SUM(revenue), SUM(order_count) FROM user_daily_sales"
+                        + " WHERE sales_day BETWEEN ? AND ? GROUP BY sales_day ORDER BY sales_day",
+                (resultSet, rowNum) -> new SalesTotal(null, null, resultSet.getDate(1).toLocalDate(),
+                        resultSet.getLong(2), Money.fromDecimal(resultSet.getBigDecimal(3)), resultSet.getLong(4)),
+                Date.valueOf(from), Date.valueOf(to));
+    }
+
+    private void upsert(String update, String insert, Object[] updateArgs, Object[] insertArgs) {
+        if (jdbcTemplate.update(update, updateArgs) > 0) {
+            return;
+        }
+        try {
+            // Behind a savepoint, so a lost race does not abort the surrounding payment on Postgres.
+            savepoint.execute(status -> jdbcTemplate.update(insert, insertArgs));
+        } catch (DuplicateKeyException e) {
+            // Another payment created the row first.
+            jdbcTemplate.update(update, updateArgs);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.teamvoy.task.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+@Repository
+public class SweepLeaseJdbcRepository {
+    private static final Timestamp NEVER = Timestamp.valueOf(LocalDateTime.of(1970, 1, 1, 0, 0));
+
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public SweepLeaseJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void ensurePartitions(int partitions) {
+        for (int partition = 0; partition < partitions; partition++) {
+            try {
+                jdbcTemplate.update(
+                        "INSERT INTO sweep_leases (partition_no, owner, lease_until) SELECT ?, NULL, ?"
+                                + " WHERE NOT EXISTS (SELECT 1 FROM sweep_leases WHERE partition_no = ?)",
+                        partition, NEVER, partition);
+            } catch (DuplicateKeyException e) {
+                // Another node seeded it first.
+            }
+        }
+    }
+
+    /**
+     * Takes the partition for {@code owner} until {@code until} if it is free, expired or already ours.
+     * A single conditional UPDATE, so two nodes can never both win the same partition.
+     */
+    public boolean tryAcquire(int partition, String owner, LocalDateTime now, LocalDateTime until) {
+        return jdbcTemplate.update(
+                "UPDATE sweep_leases SET owner = ?, lease_until = ?"
+                        + " WHERE partition_no = ? AND (owner IS NULL OR owner = ? OR lease_until < ?)",
+                owner, Timestamp.valueOf(until), partition, owner, Timestamp.valueOf(now)) == 1;
+    }
+
+    public boolean renew(int partition, String owner, LocalDateTime until) {
+        return jdbcTemplate.update(
+                "UPDATE sweep_leases SET lease_until = ? WHERE partition_no = ? AND owner = ?",
+                Timestamp.valueOf(until), partition, owner) == 1;
+    }
+
+    public void release(int partition, String owner) {
+        jdbcTemplate.update(
+                "UPDATE sweep_leases SET owner = NULL, lease_until = ? WHERE partition_no = ? AND owner = ?",
+                NEVER, partition, owner);
+    }
+
+    /**
+     * Records that {@code node} is alive until {@code until}, so the others count it when they work out
+     * their share of the partitions even while it holds none.
+     */
+    public void heartbeat(String node, LocalDateTime until) {
+        if (jdbcTemplate.update("UPDATE sweep_nodes SET seen_until = ? WHERE node_id = ?", Timestamp.valueOf(until), node) == 1) {
+            return;
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO sweep_nodes (node_id, seen_until) VALUES (?, ?)", node, Timestamp.valueOf(until));
+        } catch (DuplicateKeyException e) {
+            jdbcTemplate.update("UPDATE sweep_nodes SET seen_until = ? WHERE node_id = ?", Timestamp.valueOf(until), node);
+        }
+    }
+
+    public int countLiveNodes(LocalDateTime now) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM sweep_nodes WHERE seen_until >= ?", Integer.class, Timestamp.valueOf(now));
+        return count == null ? 0 : count;
+    }
+}
@@ -1,10 +1,53 @@
 package com.teamvoy.task.repository;
 
 import com.teamvoy.task.model.User;
+import com.teamvoy.task.money.Money;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.QueryHint;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     User findByEmail(String email);
 
     boolean existsUserByEmail(String email);
+
+    List<User> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+    // Conditional debit: a balance that cannot cover the amount is left as it is and 0 is returned.
+    // Amounts are minor units; they are bound as the column's decimal value in a native statement, so the
+    // arithmetic never depends on a converter being applied to a query parameter.
+    default int debit(long id, long amount) {
+        return debitDecimal(id, Money.toDecimal(amount));
+    }
+
+    default int credit(long id, long amount) {
+        return creditDecimal(id, Money.toDecimal(amount));
+    }
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE users SET balance = balance - :amount, version = version + 1 WHERE id = :id AND balance >= :amount",
+            nativeQuery = true)
+    int debitDecimal(@Param("id") long id, @Param("amount") BigDecimal amount);
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE users SET balance = balance + :amount, version = version + 1 WHERE id = :id", nativeQuery = true)
+    int creditDecimal(@Param("id") long id, @Param("amount") BigDecimal amount);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("SELECT u FROM User u ORDER BY u.id")
+    Stream<User> streamAll();
 }
@@ -0,0 +1,15 @@
+package com.teamvoy.task.retry;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Re-runs the annotated method when it fails with an optimistic locking conflict. Put it on the
+ * method that reads the entity, so every attempt works on a fresh version.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+}
@@ -0,0 +1,97 @@
+package com.teamvoy.task.retry;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Runs before the transaction interceptor so that every attempt gets its own transaction.
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RetryOnConflictAspect {
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RetryOnConflictAspect(@Value("${teamvoy.retry.max-attempts:3}") int maxAttempts,
+                                 @Value("${teamvoy.retry.initial-backoff-ms:10}") long initialBackoffMs,
+                                 @Value("${teamvoy.retry.max-backoff-ms:200}") long maxBackoffMs) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMs = Math.max(1, initialBackoffMs);
+        this.maxBackoffMs = Math.max(this.initialBackoffMs, maxBackoffMs);
+    }
+
+    @Around("@annotation(com.teamvoy.task.retry.RetryOnConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint) throws Throwable {
+        // Inside a caller's transaction a conflict has already doomed that transaction; only the caller can retry.
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        String method = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+        Counters methodCounters = counters.computeIfAbsent(method, key -> new Counters());
+        methodCounters.calls.incrementAndGet();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException e) {
+                methodCounters.conflicts.incrementAndGet();
+                if (attempt >= maxAttempts) {
+                    methodCounters.exhausted.incrementAndGet();
+                    log.warn("{} still conflicting after {} attempts", method, attempt);
+                    throw e;
+                }
+                methodCounters.retries.incrementAndGet();
+                try {
+                    Thread.sleep(backoff(attempt));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // Full jitter: a random pause up to an exponentially growing, capped ceiling.
+    long backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    public Map<String, Map<String, Long>> stats() {
+        Map<String, Map<String, Long>> stats = new TreeMap<>();
+        counters.forEach((method, methodCounters) -> {
+            Map<String, Long> values = new LinkedHashMap<>();
+            values.put("calls", methodCounters.calls.get());
+            values.put("conflicts", methodCounters.conflicts.get());
+            values.put("retries", methodCounters.retries.get());
+            values.put("exhausted", methodCounters.exhausted.get());
+            stats.put(method, values);
+        });
+        return stats;
+    }
+
+    private static class Counters {
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicLong conflicts = new AtomicLong();
+        private final AtomicLong retries = new AtomicLong();
+        private final AtomicLong exhausted = new AtomicLong();
+    }
+}
@@ -0,0 +1,11 @@
+package com.teamvoy.task.service;
+
+import java.io.OutputStream;
+
+public interface ExportService {
+    long exportProducts(OutputStream out);
+
+    long exportUsers(OutputStream out);
+
+    long exportOrders(OutputStream out);
+}
@@ -1,6 +1,7 @@
 package com.teamvoy.task.service;
 
 import com.teamvoy.task.dto.order.OrderRequest;
+import com.teamvoy.task.dto.order.PaymentResult;
 import com.teamvoy.task.model.Order;
 import com.teamvoy.task.model.User;
 
@@ -17,13 +18,13 @@ public interface OrderService {
 
     List<Order> getAll();
 
-    void removeIfOrderNotPaid();
-
     void paidTheOrder(long id);
 
-    List<Order> findByUserId(long id);
+    List<PaymentResult> payOrders(long userId, List<Long> orderIds);
 
     Order prepareOrder(List<OrderRequest> orderRequests, User user);
 
+    Order placeOrder(List<OrderRequest> orderRequests, User user);
+
     Order prepareOrderForUpdate(long orderId, List<OrderRequest> orderRequests);
 }
@@ -0,0 +1,21 @@
+package com.teamvoy.task.service;
+
+import com.teamvoy.task.dto.order.OrderSearchQuery;
+import com.teamvoy.task.dto.page.CursorPage;
+import com.teamvoy.task.model.OrderView;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface OrderViewService {
+    OrderView readById(long orderId);
+
+    CursorPage<OrderView> getPage(long after, int limit);
+
+    CursorPage<OrderView> search(OrderSearchQuery query, int limit);
+
+    List<OrderView> findByUserId(long userId);
+
+    Map<Long, List<OrderView>> findByUserIds(Collection<Long> userIds);
+}
@@ -0,0 +1,12 @@
+package com.teamvoy.task.service;
+
+import com.teamvoy.task.dto.goodsDto.ImportReport;
+
+import java.io.IOException;
+import java.io.Reader;
+
+public interface ProductImportService {
+    ImportReport importCsv(Reader reader) throws IOException;
+
+    ImportReport importNdjson(Reader reader) throws IOException;
+}
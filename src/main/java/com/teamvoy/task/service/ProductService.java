@@ -1,5 +1,7 @@
 package com.teamvoy.task.service;
 
+import com.teamvoy.task.dto.goodsDto.ProductRangeQuery;
+import com.teamvoy.task.dto.page.CursorPage;
 import com.teamvoy.task.model.Product;
 
 import java.util.List;
@@ -14,4 +16,10 @@ public interface ProductService {
     void delete(long id);
 
     List<Product> getAll();
+
+    CursorPage<Product> getPage(long after, int limit);
+
+    List<Product> search(String query, int limit);
+
+    CursorPage<Product> findInRange(ProductRangeQuery query, int limit);
 }
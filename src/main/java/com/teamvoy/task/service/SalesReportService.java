@@ -0,0 +1,16 @@
+package com.teamvoy.task.service;
+
+import com.teamvoy.task.dto.report.SalesTotal;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface SalesReportService {
+    List<SalesTotal> salesByProduct(LocalDate from, LocalDate to);
+
+    List<SalesTotal> salesByUser(LocalDate from, LocalDate to);
+
+    List<SalesTotal> salesByDay(LocalDate from, LocalDate to);
+
+    void rebuild();
+}
@@ -1,5 +1,6 @@
 package com.teamvoy.task.service;
 
+import com.teamvoy.task.dto.page.CursorPage;
 import com.teamvoy.task.model.User;
 import org.springframework.security.core.userdetails.UserDetailsService;
 
@@ -15,4 +16,6 @@ public interface UserService extends UserDetailsService {
     void delete(long id);
 
     List<User> getAll();
+
+    CursorPage<User> getPage(long after, int limit);
 }
@@ -0,0 +1,126 @@
+package com.teamvoy.task.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teamvoy.task.dto.order.OrderResponse;
+import com.teamvoy.task.dto.userDto.UserResponse;
+import com.teamvoy.task.model.OrderView;
+import com.teamvoy.task.model.User;
+import com.teamvoy.task.repository.OrderViewRepository;
+import com.teamvoy.task.repository.ProductRepository;
+import com.teamvoy.task.repository.UserRepository;
+import com.teamvoy.task.service.ExportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+public class ExportServiceImpl implements ExportService {
+    // Rows are mapped and detached in chunks of this size, so the persistence context never grows with the
+    // table and per-row lookups can be made once per chunk.
+    private static final int CHUNK_SIZE = 500;
+
+    private ProductRepository productRepository;
+    private UserRepository userRepository;
+    private OrderViewRepository orderViewRepository;
+    private TransactionTemplate readOnlyTransaction;
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public ExportServiceImpl(ProductRepository productRepository, UserRepository userRepository,
+                             OrderViewRepository orderViewRepository, PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper) {
+        this.productRepository = productRepository;
+        this.userRepository = userRepository;
+        this.orderViewRepository = orderViewRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public long exportProducts(OutputStream out) {
+        return export("goods", productRepository::streamAll, eachRow(Function.identity()), out);
+    }
+
+    // The order views of a whole chunk of users come from one IN query instead of one query per user.
+    @Override
+    public long exportUsers(OutputStream out) {
+        return export("users", userRepository::streamAll, users -> {
+            Map<Long, List<OrderView>> views = orderViewRepository.findByUserIdInOrderByOrderIdAsc(
+                            users.stream().map(User::getId).collect(Collectors.toList())).stream()
+                    .collect(Collectors.groupingBy(OrderView::getUserId));
+            return users.stream()
+                    .map(user -> new UserResponse(user, views.getOrDefault(user.getId(), List.of())))
+                    .collect(Collectors.toList());
+        }, out);
+    }
+
+    // Streamed from the read model: a row already carries its user summary and lines, while streaming Order
+    // entities would load each order's lines with a query of its own (subselect fetching only covers lists).
+    @Override
+    public long exportOrders(OutputStream out) {
+        return export("orders", orderViewRepository::streamAll, eachRow(OrderResponse::new), out);
+    }
+
+    private static <T> Function<List<T>, List<?>> eachRow(Function<T, ?> mapper) {
+        return chunk -> chunk.stream().map(mapper).collect(Collectors.toList());
+    }
+
+    private <T> long export(String name, Supplier<Stream<T>> rows, Function<List<T>, List<?>> chunkMapper, OutputStream out) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        Long written = readOnlyTransaction.execute(status -> {
+            long count = 0;
+            List<T> chunk = new ArrayList<>(CHUNK_SIZE);
+            try (Stream<T> stream = rows.get()) {
+                for (T row : (Iterable<T>) stream::iterator) {
+                    chunk.add(row);
+                    if (chunk.size() == CHUNK_SIZE) {
+                        count += writeChunk(writer, chunkMapper.apply(chunk));
+                        chunk.clear();
+                        entityManager.clear();
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    count += writeChunk(writer, chunkMapper.apply(chunk));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return count;
+        });
+        log.info("Exported {} {} rows", written, name);
+        return written == null ? 0 : written;
+    }
+
+    private int writeChunk(Writer writer, List<?> responses) throws IOException {
+        for (Object response : responses) {
+            writer.write(objectMapper.writeValueAsString(response));
+            writer.write('\n');
+        }
+        writer.flush();
+        return responses.size();
+    }
+}
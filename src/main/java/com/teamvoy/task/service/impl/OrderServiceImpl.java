@@ -1,41 +1,78 @@
 package com.teamvoy.task.service.impl;
 
 import com.teamvoy.task.dto.order.OrderRequest;
+import com.teamvoy.task.dto.order.PaymentResult;
+import com.teamvoy.task.event.OrderChangedEvent;
+import com.teamvoy.task.event.ProductChangedEvent;
 import com.teamvoy.task.exception.EntityNotFoundException;
 import com.teamvoy.task.exception.NotEnoughAmountException;
 import com.teamvoy.task.exception.NotEnoughBalanceException;
 import com.teamvoy.task.exception.NullEntityReferenceException;
+import com.teamvoy.task.exception.OrderNotPayableException;
+import com.teamvoy.task.inventory.InventoryEngine;
 import com.teamvoy.task.model.*;
+import com.teamvoy.task.money.Money;
 import com.teamvoy.task.repository.OrderRepository;
+import com.teamvoy.task.repository.OrderViewRepository;
+import com.teamvoy.task.repository.ProductJdbcRepository;
 import com.teamvoy.task.repository.OrderedProductRepository;
 import com.teamvoy.task.repository.ProductRepository;
+import com.teamvoy.task.repository.SalesAggregateJdbcRepository;
+import com.teamvoy.task.repository.UserRepository;
+import com.teamvoy.task.retry.RetryOnConflict;
 import com.teamvoy.task.service.OrderService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.time.Duration;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class OrderServiceImpl implements OrderService {
     private OrderRepository orderRepository;
     private ProductRepository productRepository;
+    private ProductJdbcRepository productJdbcRepository;
     private OrderedProductRepository orderedProductRepository;
+    private UserRepository userRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private InventoryEngine inventoryEngine;
+    private SalesAggregateJdbcRepository salesAggregateJdbcRepository;
+    private OrderViewRepository orderViewRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Autowired
-    public OrderServiceImpl(OrderRepository orderRepository, ProductRepository productRepository, OrderedProductRepository orderedProductRepository) {
+    public OrderServiceImpl(OrderRepository orderRepository, ProductRepository productRepository, ProductJdbcRepository productJdbcRepository,
+                            OrderedProductRepository orderedProductRepository, UserRepository userRepository,
+                            ApplicationEventPublisher eventPublisher, InventoryEngine inventoryEngine,
+                            SalesAggregateJdbcRepository salesAggregateJdbcRepository, OrderViewRepository orderViewRepository) {
         this.orderRepository = orderRepository;
         this.productRepository = productRepository;
+        this.productJdbcRepository = productJdbcRepository;
         this.orderedProductRepository = orderedProductRepository;
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.inventoryEngine = inventoryEngine;
+        this.salesAggregateJdbcRepository = salesAggregateJdbcRepository;
+        this.orderViewRepository = orderViewRepository;
     }
 
     @Override
+    @Transactional
     public Order create(Order order) {
         if (order != null) {
-            return orderRepository.save(order);
+            Order saved = orderRepository.save(order);
+            insertNewLines(saved, 0);
+            return published(OrderChangedEvent.Kind.CREATED, saved);
         }
         throw new NullEntityReferenceException("Order cannot be 'null'");
     }
@@ -47,17 +84,25 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    @Transactional
     public Order update(Order order) {
         if (order != null) {
             readById(order.getId());
-            return orderRepository.save(order);
+            return published(OrderChangedEvent.Kind.UPDATED, orderRepository.save(order));
         }
         throw new NullEntityReferenceException("Order cannot be 'null'");
     }
 
     @Override
+    @Transactional
+    @RetryOnConflict
     public void delete(long id) {
-        orderRepository.delete(readById(id));
+        Order order = readById(id);
+        // The lines hold the order_id foreign key and the collection never writes it, so they go first.
+        orderedProductRepository.deleteAll(order.getOrderedProducts());
+        orderRepository.delete(order);
+        orderViewRepository.remove(id);
+        publishAfterCommit(OrderChangedEvent.of(OrderChangedEvent.Kind.DELETED, id));
     }
 
     @Override
@@ -66,135 +111,328 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
-    @Scheduled(fixedDelay = 300000)
-    public void removeIfOrderNotPaid() {
-        List<Order> unpaidOrders = orderRepository.findUnpaidOrders();
-
-        LocalDateTime currentTime = LocalDateTime.now();
-        unpaidOrders.stream()
-                .filter(order -> Duration.between(order.getLocalDateTime(), currentTime).toMinutes() >= 10)
-                .forEach(order -> {
-                    if (order.getStatus() == Status.NOT_PAID) {
-                        List<OrderedProduct> orderedProducts = order.getOrderedProducts();
-                        for (OrderedProduct orderedProduct : orderedProducts) {
-                            Product product = productRepository.findById(orderedProduct.getId())
-                                    .orElseThrow(() -> new EntityNotFoundException("Product with id " + orderedProduct.getId() + " not found!"));
-                            product.setAmount(product.getAmount() + orderedProduct.getAmount());
-                            productRepository.save(product);
-                        }
-                    }
-                    orderRepository.delete(order);
-                });
-    }
-
-    @Override
+    @Transactional
     public void paidTheOrder(long id) {
         Order order = readById(id);
-        User user = order.getUser();
-        if (user.getBalance() >= order.getSum()) {
-            user.setBalance(user.getBalance() - order.getSum());
-            order.setStatus(Status.PAID);
-            orderRepository.save(order);
-        } else
-            throw new NotEnoughBalanceException("You do not have enough balance to pay for the order");
+        pay(order, order.getUser().getId());
     }
 
+    // One transaction for the whole batch; a failed payment leaves nothing behind (see pay), so the
+    // others still go through and every order gets its own result.
     @Override
-    public List<Order> findByUserId(long id) {
-        return orderRepository.findByUserId(id);
+    @Transactional
+    public List<PaymentResult> payOrders(long userId, List<Long> orderIds) {
+        Map<Long, Order> orders = orderRepository.findAllById(orderIds).stream()
+                .filter(order -> order.getUser() != null && order.getUser().getId() == userId)
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+        List<PaymentResult> results = new ArrayList<>();
+        for (Long orderId : orderIds) {
+            Order order = orders.get(orderId);
+            if (order == null) {
+                results.add(new PaymentResult(orderId, false, "Order with id " + orderId + " not found!"));
+                continue;
+            }
+            try {
+                pay(order, userId);
+                results.add(new PaymentResult(orderId, true, "Your order with id " + orderId + " has been paid"));
+            } catch (NotEnoughBalanceException | OrderNotPayableException e) {
+                results.add(new PaymentResult(orderId, false, e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    // The balance is debited with a guarded UPDATE, so two payments can never spend the same money, and the
+    // status moves NOT_PAID -> PAID the same way. If the order was paid or expired in between, the debit is
+    // given back before failing. Sums and balances are exact minor units, so a refund restores the balance
+    // to the cent.
+    private void pay(Order order, long userId) {
+        if (order.getStatus() != Status.NOT_PAID) {
+            throw new OrderNotPayableException("Order with id " + order.getId() + " is already paid");
+        }
+        if (userRepository.debit(userId, order.getSum()) == 0) {
+            throw new NotEnoughBalanceException("You do not have enough balance to pay for the order");
+        }
+        LocalDateTime paidAt = LocalDateTime.now();
+        if (orderRepository.markPaid(order.getId(), paidAt) == 0) {
+            userRepository.credit(userId, order.getSum());
+            throw new OrderNotPayableException("Order with id " + order.getId() + " is already paid or has expired");
+        }
+        // The guarded UPDATE bypassed the entity, so only this order is reloaded to pick up its new status and
+        // version; the rest of the persistence context stays attached.
+        if (entityManager.contains(order)) {
+            entityManager.refresh(order);
+        } else {
+            order.setStatus(Status.PAID);
+            order.setPaidAt(paidAt);
+        }
+        orderViewRepository.markPaid(order.getId());
+        salesAggregateJdbcRepository.record(order, paidAt.toLocalDate());
+        publishAfterCommit(OrderChangedEvent.of(OrderChangedEvent.Kind.PAID, order));
     }
 
     @Override
+    @Transactional
     public Order prepareOrder(List<OrderRequest> orderRequests, User user) {
-        List<OrderedProduct> productsFromRequest = new ArrayList<>();
-        List<Product> productsFromDB = new ArrayList<>();
-
-        for (OrderRequest orderRequest : orderRequests) {
-            Product product = productRepository.findById(orderRequest.getProductId()).orElseThrow(
-                    () -> new EntityNotFoundException("Product with id " + orderRequest.getProductId() + " not found!"));
-            long requestedAmount = orderRequest.getAmount();
-
-            if (checkIfEnoughAmount(product, requestedAmount)) {
-                product.setAmount(product.getAmount() - requestedAmount);
-
-                OrderedProduct orderedProduct = new OrderedProduct();
-                orderedProduct.setId(product.getId());
-                orderedProduct.setName(product.getName());
-                orderedProduct.setAmount(requestedAmount);
-                orderedProduct.setPrice(product.getPrice());
-
-                productsFromDB.add(product);
-                productsFromRequest.add(orderedProduct);
-            } else {
-                productsFromRequest.clear();
-                productsFromDB.clear();
-                throw new NotEnoughAmountException("Insufficient stock for item: " + product.getName());
-            }
-        }
-        orderedProductRepository.saveAll(productsFromRequest);
-        productRepository.saveAll(productsFromDB);
+        List<OrderedProduct> productsFromRequest = inventoryEngine.isEnabled()
+                ? reserveInEngine(orderRequests)
+                : reserveInDatabase(orderRequests);
 
         Order order = new Order();
         order.setUser(user);
         order.setStatus(Status.NOT_PAID);
         order.setOrderedProducts(productsFromRequest);
         order.setLocalDateTime(LocalDateTime.now());
-        order.setSum(productsFromRequest.stream().mapToDouble(value -> value.getPrice() * value.getAmount()).sum());
+        long sum = 0;
+        for (OrderedProduct line : productsFromRequest) {
+            sum = Money.addLine(sum, line.getPrice(), line.getAmount());
+        }
+        order.setSum(sum);
 
         return order;
     }
 
+    // Shortfalls leave no trace behind (see reserveInDatabase), so they need not doom a surrounding
+    // transaction that other orders share.
     @Override
-    public Order prepareOrderForUpdate(long orderId, List<OrderRequest> orderRequests) {
-        Order existingOrder = readById(orderId);
+    @Transactional(noRollbackFor = {NotEnoughAmountException.class, EntityNotFoundException.class})
+    public Order placeOrder(List<OrderRequest> orderRequests, User user) {
+        return create(prepareOrder(orderRequests, user));
+    }
 
-        if (existingOrder.getStatus() == Status.NOT_PAID) {
-            double newSum = orderRequests.stream()
-                    .mapToDouble(orderRequest -> {
-                        Product product = productRepository.findById(orderRequest.getProductId())
-                                .orElseThrow(() -> new EntityNotFoundException("Product with id " + orderRequest.getProductId() + " not found!"));
-                        return product.getPrice() * orderRequest.getAmount();
-                    })
-                    .sum();
+    // One guarded UPDATE per product in a single batch; a row that cannot cover its amount is simply not
+    // updated, so concurrent orders can never oversell and a shortfall rolls the whole order back.
+    private List<OrderedProduct> reserveInDatabase(List<OrderRequest> orderRequests) {
+        Map<Long, Long> requestedAmounts = new LinkedHashMap<>();
+        orderRequests.forEach(orderRequest ->
+                requestedAmounts.merge(orderRequest.getProductId(), orderRequest.getAmount(), Long::sum));
+
+        Set<Long> rejected = productJdbcRepository.subtractAmounts(requestedAmounts);
+        Map<Long, Product> products = productJdbcRepository.findAllById(requestedAmounts.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        if (!rejected.isEmpty()) {
+            // Give back the lines that did go through before failing the order.
+            Map<Long, Long> applied = new LinkedHashMap<>(requestedAmounts);
+            applied.keySet().removeAll(rejected);
+            if (!applied.isEmpty()) {
+                productJdbcRepository.addAmounts(applied);
+            }
+            Long productId = rejected.iterator().next();
+            Product product = products.get(productId);
+            if (product == null) {
+                throw new EntityNotFoundException("Product with id " + productId + " not found!");
+            }
+            throw new NotEnoughAmountException("Insufficient stock for item: " + product.getName());
+        }
+        publishAfterCommit(ProductChangedEvent.stock(products.values()));
 
-            existingOrder.setSum(newSum);
-            List<OrderedProduct> updatedOrderedProducts = new ArrayList<>();
+        return orderRequests.stream()
+                .map(orderRequest -> orderedProduct(products.get(orderRequest.getProductId()), orderRequest.getAmount()))
+                .collect(Collectors.toList());
+    }
 
+    private List<OrderedProduct> reserveInEngine(List<OrderRequest> orderRequests) {
+        List<OrderedProduct> productsFromRequest = new ArrayList<>();
+        try {
             for (OrderRequest orderRequest : orderRequests) {
-                Product product = productRepository.findById(orderRequest.getProductId())
-                        .orElseThrow(() -> new EntityNotFoundException("Product with id " + orderRequest.getProductId() + " not found!"));
-
-                OrderedProduct existingOrderedProduct = existingOrder.getOrderedProducts().stream()
-                        .filter(orderedProduct -> orderedProduct.getId().equals(product.getId()))
-                        .findFirst()
-                        .orElse(new OrderedProduct());
-
-                if (checkIfEnoughAmount(product, orderRequest.getAmount())) {
-                    if (orderRequest.getAmount() > 1) {
-                        product.setAmount(product.getAmount() - (orderRequest.getAmount() - existingOrderedProduct.getAmount()));
-                    } else
-                        product.setAmount(product.getAmount() - orderRequest.getAmount());
-
-                    existingOrderedProduct.setId(product.getId());
-                    existingOrderedProduct.setName(product.getName());
-                    existingOrderedProduct.setAmount(orderRequest.getAmount());
-                    existingOrderedProduct.setPrice(product.getPrice());
-
-                    updatedOrderedProducts.add(existingOrderedProduct);
-                    orderedProductRepository.save(existingOrderedProduct);
-                } else
+                Product product = productRepository.findById(orderRequest.getProductId()).orElseThrow(
+                        () -> new EntityNotFoundException("Product with id " + orderRequest.getProductId() + " not found!"));
+                if (!inventoryEngine.tryReserve(product.getId(), orderRequest.getAmount())) {
                     throw new NotEnoughAmountException("Insufficient stock for item: " + product.getName());
-
+                }
+                productsFromRequest.add(orderedProduct(product, orderRequest.getAmount()));
             }
-            existingOrder.setOrderedProducts(updatedOrderedProducts);
+        } catch (RuntimeException e) {
+            productsFromRequest.forEach(orderedProduct ->
+                    inventoryEngine.release(orderedProduct.getProductId(), orderedProduct.getAmount()));
+            throw e;
+        }
+        return productsFromRequest;
+    }
+
+    private OrderedProduct orderedProduct(Product product, long amount) {
+        OrderedProduct orderedProduct = new OrderedProduct();
+        orderedProduct.setProductId(product.getId());
+        orderedProduct.setName(product.getName());
+        orderedProduct.setAmount(amount);
+        orderedProduct.setPrice(product.getPrice());
+        return orderedProduct;
+    }
 
-            return orderRepository.save(existingOrder);
+    private void publishAfterCommit(Object event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    eventPublisher.publishEvent(event);
+                }
+            });
         } else {
+            eventPublisher.publishEvent(event);
+        }
+    }
+
+    // The request is diffed against the existing lines: only added, changed and removed lines are written,
+    // stock moves by the exact per-product delta, and the sum is adjusted line by line.
+    @Override
+    @Transactional
+    @RetryOnConflict
+    public Order prepareOrderForUpdate(long orderId, List<OrderRequest> orderRequests) {
+        Order existingOrder = readById(orderId);
+        if (existingOrder.getStatus() != Status.NOT_PAID) {
             throw new UnsupportedOperationException("Updating orders with status " + existingOrder.getStatus() + " is not allowed.");
         }
+
+        Map<Long, Long> requestedAmounts = new LinkedHashMap<>();
+        orderRequests.forEach(orderRequest ->
+                requestedAmounts.merge(orderRequest.getProductId(), orderRequest.getAmount(), Long::sum));
+        Map<Long, OrderedProduct> existingLines = new LinkedHashMap<>();
+        existingOrder.getOrderedProducts().forEach(line -> existingLines.put(line.getProductId(), line));
+
+        Map<Long, Long> deltas = new LinkedHashMap<>();
+        requestedAmounts.forEach((productId, amount) -> {
+            OrderedProduct line = existingLines.get(productId);
+            long delta = amount - (line == null ? 0 : line.getAmount());
+            if (delta != 0) {
+                deltas.put(productId, delta);
+            }
+        });
+        existingLines.forEach((productId, line) -> {
+            if (!requestedAmounts.containsKey(productId)) {
+                deltas.put(productId, -line.getAmount());
+            }
+        });
+        if (deltas.isEmpty()) {
+            return existingOrder;
+        }
+
+        Set<Long> pricedIds = new LinkedHashSet<>(deltas.keySet());
+        pricedIds.retainAll(requestedAmounts.keySet());
+        Map<Long, Product> products = productJdbcRepository.findAllById(pricedIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        for (Long productId : pricedIds) {
+            if (!products.containsKey(productId)) {
+                throw new EntityNotFoundException("Product with id " + productId + " not found!");
+            }
+        }
+        applyStockDeltas(deltas, products);
+
+        long sum = existingOrder.getSum();
+        List<OrderedProduct> lines = new ArrayList<>();
+        List<OrderedProduct> changed = new ArrayList<>();
+        List<OrderedProduct> removed = new ArrayList<>();
+        for (Map.Entry<Long, OrderedProduct> entry : existingLines.entrySet()) {
+            OrderedProduct line = entry.getValue();
+            if (!deltas.containsKey(entry.getKey())) {
+                lines.add(line);
+                continue;
+            }
+            sum = Money.subtract(sum, Money.times(line.getPrice(), line.getAmount()));
+            if (!requestedAmounts.containsKey(entry.getKey())) {
+                removed.add(line);
+                continue;
+            }
+            Product product = products.get(entry.getKey());
+            line.setAmount(requestedAmounts.get(entry.getKey()));
+            line.setPrice(product.getPrice());
+            sum = Money.addLine(sum, line.getPrice(), line.getAmount());
+            lines.add(line);
+            changed.add(line);
+        }
+        for (Map.Entry<Long, Long> entry : requestedAmounts.entrySet()) {
+            if (!existingLines.containsKey(entry.getKey())) {
+                OrderedProduct line = orderedProduct(products.get(entry.getKey()), entry.getValue());
+                sum = Money.addLine(sum, line.getPrice(), line.getAmount());
+                lines.add(line);
+            }
+        }
+
+        // Numbers of removed lines are not reused: their DELETEs are flushed after the new INSERTs.
+        int lastLineNo = existingLines.values().stream().mapToInt(line -> line.getId().getLineNo()).max().orElse(0);
+        if (!changed.isEmpty()) {
+            orderedProductRepository.saveAll(changed);
+        }
+        if (!removed.isEmpty()) {
+            orderedProductRepository.deleteAll(removed);
+        }
+        existingOrder.setOrderedProducts(lines);
+        insertNewLines(existingOrder, lastLineNo);
+        existingOrder.setSum(sum);
+
+        return published(OrderChangedEvent.Kind.UPDATED, orderRepository.save(existingOrder));
     }
 
-    private boolean checkIfEnoughAmount(Product product, long requestAmount) {
-        return product.getAmount() >= requestAmount;
+    // Increases go through the same guarded batch as new orders; decreases are given back afterwards.
+    private void applyStockDeltas(Map<Long, Long> deltas, Map<Long, Product> products) {
+        Map<Long, Long> reserve = new LinkedHashMap<>();
+        Map<Long, Long> release = new LinkedHashMap<>();
+        deltas.forEach((productId, delta) -> {
+            if (delta > 0) {
+                reserve.put(productId, delta);
+            } else {
+                release.put(productId, -delta);
+            }
+        });
+
+        if (inventoryEngine.isEnabled()) {
+            List<Long> reserved = new ArrayList<>();
+            for (Map.Entry<Long, Long> entry : reserve.entrySet()) {
+                if (!inventoryEngine.tryReserve(entry.getKey(), entry.getValue())) {
+                    reserved.forEach(productId -> inventoryEngine.release(productId, reserve.get(productId)));
+                    throw new NotEnoughAmountException("Insufficient stock for item: " + products.get(entry.getKey()).getName());
+                }
+                reserved.add(entry.getKey());
+            }
+            release.forEach(inventoryEngine::release);
+            return;
+        }
+
+        if (!reserve.isEmpty()) {
+            Set<Long> rejected = productJdbcRepository.subtractAmounts(reserve);
+            if (!rejected.isEmpty()) {
+                Map<Long, Long> applied = new LinkedHashMap<>(reserve);
+                applied.keySet().removeAll(rejected);
+                if (!applied.isEmpty()) {
+                    productJdbcRepository.addAmounts(applied);
+                }
+                throw new NotEnoughAmountException("Insufficient stock for item: " + products.get(rejected.iterator().next()).getName());
+            }
+        }
+        if (!release.isEmpty()) {
+            productJdbcRepository.addAmounts(release);
+        }
+        publishAfterCommit(ProductChangedEvent.stockOf(deltas.keySet()));
+    }
+
+    // Lines without a key are new: they are numbered after lastLineNo under the order's id and inserted in one batch.
+    private void insertNewLines(Order order, int lastLineNo) {
+        if (order.getOrderedProducts() == null) {
+            return;
+        }
+        List<OrderedProduct> added = new ArrayList<>();
+        for (OrderedProduct line : order.getOrderedProducts()) {
+            if (line.getId() == null) {
+                line.setId(new OrderedProduct.Key(order.getId(), ++lastLineNo));
+                added.add(line);
+            }
+        }
+        if (!added.isEmpty()) {
+            orderedProductRepository.insertAll(added);
+        }
+    }
+
+    // Every order write goes through here, so the read model is refreshed in the same transaction.
+    private Order published(OrderChangedEvent.Kind kind, Order order) {
+        if (order != null && order.getId() != null) {
+            // An existing row is updated in place so that its @Version moves on; a detached copy would not merge.
+            OrderView view = kind == OrderChangedEvent.Kind.CREATED ? null : orderViewRepository.findById(order.getId()).orElse(null);
+            if (view == null) {
+                orderViewRepository.save(OrderView.of(order));
+            } else {
+                view.copyFrom(order);
+            }
+            publishAfterCommit(OrderChangedEvent.of(kind, order));
+        }
+        return order;
     }
 }
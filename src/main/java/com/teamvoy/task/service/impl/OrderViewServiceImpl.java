@@ -0,0 +1,72 @@
+package com.teamvoy.task.service.impl;
+
+import com.teamvoy.task.dto.order.OrderSearchQuery;
+import com.teamvoy.task.dto.page.CursorPage;
+import com.teamvoy.task.exception.EntityNotFoundException;
+import com.teamvoy.task.model.OrderView;
+import com.teamvoy.task.repository.OrderRepository;
+import com.teamvoy.task.repository.OrderViewRepository;
+import com.teamvoy.task.service.OrderViewService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Query side for orders: everything is served from the order_views projection, one table, no joins.
+ */
+@Service
+public class OrderViewServiceImpl implements OrderViewService {
+    private OrderViewRepository orderViewRepository;
+    private OrderRepository orderRepository;
+
+    @Autowired
+    public OrderViewServiceImpl(OrderViewRepository orderViewRepository, OrderRepository orderRepository) {
+        this.orderViewRepository = orderViewRepository;
+        this.orderRepository = orderRepository;
+    }
+
+    @Override
+    public OrderView readById(long orderId) {
+        return orderViewRepository.findById(orderId).orElseThrow(
+                () -> new EntityNotFoundException("Order with id " + orderId + " not found!"));
+    }
+
+    @Override
+    public CursorPage<OrderView> getPage(long after, int limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        List<OrderView> rows = orderViewRepository.findByOrderIdGreaterThanOrderByOrderIdAsc(after, PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(rows, pageSize, OrderView::getOrderId);
+    }
+
+    // The filters still run against the composite indexes on orders, but only the ids are read there.
+    @Override
+    public CursorPage<OrderView> search(OrderSearchQuery query, int limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        List<Long> ids = orderRepository.searchIds(query, pageSize + 1);
+        boolean more = ids.size() > pageSize;
+        List<Long> pageIds = more ? ids.subList(0, pageSize) : ids;
+        Map<Long, OrderView> views = orderViewRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(OrderView::getOrderId, Function.identity()));
+        List<OrderView> rows = pageIds.stream().map(views::get).filter(Objects::nonNull).collect(Collectors.toList());
+        String next = more && !rows.isEmpty() ? query.cursorAfter(rows.get(rows.size() - 1)) : null;
+        return new CursorPage<>(rows, next);
+    }
+
+    @Override
+    public List<OrderView> findByUserId(long userId) {
+        return orderViewRepository.findByUserIdOrderByOrderIdAsc(userId);
+    }
+
+    @Override
+    public Map<Long, List<OrderView>> findByUserIds(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        return orderViewRepository.findByUserIdInOrderByOrderIdAsc(userIds).stream()
+                .collect(Collectors.groupingBy(OrderView::getUserId));
+    }
+}
@@ -0,0 +1,245 @@
+package com.teamvoy.task.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teamvoy.task.dto.goodsDto.GoodsRequest;
+import com.teamvoy.task.dto.goodsDto.ImportReport;
+import com.teamvoy.task.event.ProductChangedEvent;
+import com.teamvoy.task.model.Product;
+import com.teamvoy.task.money.Money;
+import com.teamvoy.task.repository.ProductJdbcRepository;
+import com.teamvoy.task.repository.ProductRepository;
+import com.teamvoy.task.service.ProductImportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+    private ProductRepository productRepository;
+    private ProductJdbcRepository productJdbcRepository;
+    private TransactionTemplate transactionTemplate;
+    private ApplicationEventPublisher eventPublisher;
+    private ObjectMapper objectMapper;
+    private int chunkSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public ProductImportServiceImpl(ProductRepository productRepository, ProductJdbcRepository productJdbcRepository,
+                                    TransactionTemplate transactionTemplate, ApplicationEventPublisher eventPublisher,
+                                    ObjectMapper objectMapper, @Value("${teamvoy.import.chunk-size:500}") int chunkSize) {
+        this.productRepository = productRepository;
+        this.productJdbcRepository = productJdbcRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public ImportReport importCsv(Reader reader) throws IOException {
+        return importRows(reader, this::parseCsvRow, true);
+    }
+
+    @Override
+    public ImportReport importNdjson(Reader reader) throws IOException {
+        return importRows(reader, line -> objectMapper.readValue(line, GoodsRequest.class), false);
+    }
+
+    private ImportReport importRows(Reader source, RowParser parser, boolean csv) throws IOException {
+        ImportReport report = new ImportReport();
+        BufferedReader reader = new BufferedReader(source);
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        boolean firstRow = true;
+        long lineNo = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNo++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (csv && firstRow && isCsvHeader(line)) {
+                firstRow = false;
+                continue;
+            }
+            firstRow = false;
+            report.setRows(report.getRows() + 1);
+
+            GoodsRequest request;
+            try {
+                request = parser.parse(line);
+            } catch (IOException | IllegalArgumentException e) {
+                report.rejected(lineNo, "Malformed row: " + e.getMessage());
+                continue;
+            }
+            String error = validate(request);
+            if (error != null) {
+                report.rejected(lineNo, error);
+                continue;
+            }
+            chunk.add(new Row(lineNo, request));
+            if (chunk.size() == chunkSize) {
+                flush(chunk, report);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            flush(chunk, report);
+        }
+        log.info("Goods import finished: {} rows, {} created, {} merged, {} failed",
+                report.getRows(), report.getCreated(), report.getMerged(), report.getFailed());
+        return report;
+    }
+
+    private void flush(List<Row> chunk, ImportReport report) {
+        Map<String, Pending> pending = new LinkedHashMap<>();
+        for (Row row : chunk) {
+            GoodsRequest request = row.request;
+            pending.merge(normalize(request.getName()),
+                    new Pending(request.getName().trim(), request.getAmount(), request.getPrice()),
+                    (first, next) -> {
+                        first.amount += next.amount;
+                        return first;
+                    });
+        }
+        int[] created = new int[1];
+        try {
+            List<Product> touched = transactionTemplate.execute(status -> {
+                Map<String, Product> existing = productRepository.findByNormalizedNameIn(pending.keySet()).stream()
+                        .collect(Collectors.toMap(product -> normalize(product.getName()), Function.identity(), (a, b) -> a));
+                // Only ids are needed from here on, and nothing loaded above may be flushed back over the batch.
+                entityManager.clear();
+
+                Map<Long, Long> increments = new LinkedHashMap<>();
+                List<Product> inserts = new ArrayList<>();
+                pending.forEach((key, row) -> {
+                    Product product = existing.get(key);
+                    if (product != null) {
+                        increments.merge(product.getId(), row.amount, Long::sum);
+                    } else {
+                        inserts.add(new Product(null, row.name, row.amount, row.price));
+                    }
+                });
+                if (!increments.isEmpty()) {
+                    productJdbcRepository.addAmounts(increments);
+                }
+                if (!inserts.isEmpty()) {
+                    productJdbcRepository.insertAll(inserts);
+                }
+                created[0] = inserts.size();
+                return productRepository.findByNormalizedNameIn(pending.keySet());
+            });
+            report.setCreated(report.getCreated() + created[0]);
+            report.setMerged(report.getMerged() + chunk.size() - created[0]);
+            if (touched != null && !touched.isEmpty()) {
+                eventPublisher.publishEvent(ProductChangedEvent.saved(touched));
+            }
+        } catch (DataAccessException e) {
+            log.error("Goods import chunk failed: {}", e.getMessage());
+            chunk.forEach(row -> report.rejected(row.line, "Chunk rolled back: " + e.getMostSpecificCause().getMessage()));
+        }
+    }
+
+    private GoodsRequest parseCsvRow(String line) {
+        List<String> fields = splitCsv(line);
+        if (fields.size() != 3) {
+            throw new IllegalArgumentException("expected 3 columns (name,amount,price) but got " + fields.size());
+        }
+        return new GoodsRequest(fields.get(0), Integer.parseInt(fields.get(1).trim()), Money.parse(fields.get(2)));
+    }
+
+    private static boolean isCsvHeader(String line) {
+        List<String> fields = splitCsv(line);
+        return !fields.isEmpty() && fields.get(0).trim().equalsIgnoreCase("name");
+    }
+
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String validate(GoodsRequest request) {
+        if (request == null || request.getName() == null || request.getName().isBlank()) {
+            return "The 'name' cannot be empty";
+        }
+        if (request.getAmount() < 0) {
+            return "The 'amount' cannot be negative";
+        }
+        if (request.getPrice() < 0) {
+            return "The 'price' cannot be negative";
+        }
+        return null;
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @FunctionalInterface
+    private interface RowParser {
+        GoodsRequest parse(String line) throws IOException;
+    }
+
+    private static class Row {
+        private final long line;
+        private final GoodsRequest request;
+
+        private Row(long line, GoodsRequest request) {
+            this.line = line;
+            this.request = request;
+        }
+    }
+
+    private static class Pending {
+        private final String name;
+        private long amount;
+        private final long price;
+
+        private Pending(String name, long amount, long price) {
+            this.name = name;
+            this.amount = amount;
+            this.price = price;
+        }
+    }
+}
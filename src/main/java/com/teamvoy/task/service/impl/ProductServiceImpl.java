@@ -1,21 +1,43 @@
 package com.teamvoy.task.service.impl;
 
+import com.teamvoy.task.catalog.ProductCache;
+import com.teamvoy.task.catalog.ProductRangeIndex;
+import com.teamvoy.task.catalog.ProductSearchIndex;
+import com.teamvoy.task.dto.goodsDto.ProductRangeQuery;
+import com.teamvoy.task.dto.page.CursorPage;
+import com.teamvoy.task.event.ProductChangedEvent;
 import com.teamvoy.task.exception.EntityNotFoundException;
 import com.teamvoy.task.exception.NullEntityReferenceException;
 import com.teamvoy.task.model.Product;
 import com.teamvoy.task.repository.ProductRepository;
+import com.teamvoy.task.retry.RetryOnConflict;
 import com.teamvoy.task.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductServiceImpl implements ProductService {
     @Autowired
     private ProductRepository productRepository;
+    @Autowired
+    private ProductCache productCache;
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+    @Autowired
+    private ProductRangeIndex productRangeIndex;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     @Override
+    @RetryOnConflict
     public Product create(Product product) {
         if (product != null) {
             if (productRepository.existsByName(product.getName())) {
@@ -24,36 +46,82 @@ public class ProductServiceImpl implements ProductService {
 
                 if (exitingProduct.getName().trim().equalsIgnoreCase(product.getName().trim())) {
                     exitingProduct.setAmount(exitingProduct.getAmount() + product.getAmount());
-                    return productRepository.save(exitingProduct);
+                    return published(productRepository.save(exitingProduct));
                 }
             }
-            return productRepository.save(product);
+            return published(productRepository.save(product));
         } else
             throw new NullEntityReferenceException("Product cannot be 'null'");
     }
 
     @Override
     public Product readById(long id) {
-        return productRepository.findById(id).orElseThrow(
+        Product cached = productCache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        long loadToken = productCache.loadToken();
+        Product product = productRepository.findById(id).orElseThrow(
                 () -> new EntityNotFoundException("Product with id " + id + " not found!"));
+        productCache.put(product, loadToken);
+        return product;
     }
 
     @Override
     public Product update(Product product) {
         if (product != null) {
             readById(product.getId());
-            return productRepository.save(product);
+            return published(productRepository.save(product));
         }
         throw new NullEntityReferenceException("Product cannot be 'null'");
     }
 
     @Override
+    @RetryOnConflict
     public void delete(long id) {
         productRepository.delete(readById(id));
+        eventPublisher.publishEvent(ProductChangedEvent.removed(id));
     }
 
     @Override
     public List<Product> getAll() {
         return productRepository.findAll();
     }
+
+    @Override
+    public CursorPage<Product> getPage(long after, int limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        List<Product> rows = productRepository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(rows, pageSize, Product::getId);
+    }
+
+    @Override
+    public List<Product> search(String query, int limit) {
+        return loadInOrder(productSearchIndex.search(query, CursorPage.clampLimit(limit)));
+    }
+
+    @Override
+    public CursorPage<Product> findInRange(ProductRangeQuery query, int limit) {
+        CursorPage<Long> ids = productRangeIndex.scan(query, CursorPage.clampLimit(limit));
+        return new CursorPage<>(loadInOrder(ids.getItems()), ids.getNextCursor());
+    }
+
+    private List<Product> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Product> byId = productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private Product published(Product saved) {
+        if (saved != null) {
+            eventPublisher.publishEvent(ProductChangedEvent.saved(saved));
+        }
+        return saved;
+    }
 }
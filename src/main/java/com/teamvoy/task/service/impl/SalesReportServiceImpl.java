@@ -0,0 +1,51 @@
+package com.teamvoy.task.service.impl;
+
+import com.teamvoy.task.dto.report.SalesTotal;
+import com.teamvoy.task.repository.SalesAggregateJdbcRepository;
+import com.teamvoy.task.service.SalesReportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Reports read only the daily aggregates that {@link OrderServiceImpl} keeps up to date on every payment,
+ * so their cost depends on the number of days in the range rather than on the number of orders.
+ */
+@Slf4j
+@Service
+public class SalesReportServiceImpl implements SalesReportService {
+    private SalesAggregateJdbcRepository salesAggregateJdbcRepository;
+
+    @Autowired
+    public SalesReportServiceImpl(SalesAggregateJdbcRepository salesAggregateJdbcRepository) {
+        this.salesAggregateJdbcRepository = salesAggregateJdbcRepository;
+    }
+
+    @Override
+    public List<SalesTotal> salesByProduct(LocalDate from, LocalDate to) {
+        return salesAggregateJdbcRepository.totalsByProduct(from, to);
+    }
+
+    @Override
+    public List<SalesTotal> salesByUser(LocalDate from, LocalDate to) {
+        return salesAggregateJdbcRepository.totalsByUser(from, to);
+    }
+
+    @Override
+    public List<SalesTotal> salesByDay(LocalDate from, LocalDate to) {
+        return salesAggregateJdbcRepository.totalsByDay(from, to);
+    }
+
+    // Backfill: one transaction, so readers see either the old or the rebuilt aggregates.
+    @Override
+    @Transactional
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        salesAggregateJdbcRepository.rebuild();
+        log.info("Rebuilt sales aggregates in {} ms", System.currentTimeMillis() - started);
+    }
+}
@@ -1,16 +1,25 @@
 package com.teamvoy.task.service.impl;
 
+import com.teamvoy.task.dto.page.CursorPage;
+import com.teamvoy.task.event.UserChangedEvent;
 import com.teamvoy.task.exception.EntityNotFoundException;
 import com.teamvoy.task.exception.InvalidEmailException;
 import com.teamvoy.task.exception.NullEntityReferenceException;
 import com.teamvoy.task.model.User;
+import com.teamvoy.task.repository.OrderViewRepository;
 import com.teamvoy.task.repository.UserRepository;
+import com.teamvoy.task.retry.RetryOnConflict;
 import com.teamvoy.task.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 
@@ -18,11 +27,16 @@ import java.util.List;
 public class UserServiceImpl implements UserService {
     private UserRepository userRepository;
     private PasswordEncoder passwordEncoder;
+    private OrderViewRepository orderViewRepository;
+    private ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                           OrderViewRepository orderViewRepository, ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.orderViewRepository = orderViewRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -44,18 +58,25 @@ public class UserServiceImpl implements UserService {
                 () -> new EntityNotFoundException("User with id " + id + " not found"));
     }
 
+    // The user summary is copied into every order view, so it is refreshed together with the user.
     @Override
+    @Transactional
     public User update(User user) {
         if (user != null) {
             readById(user.getId());
             String encodedPassword = passwordEncoder.encode(user.getPassword());
             user.setPassword(encodedPassword);
-            return userRepository.save(user);
+            User saved = userRepository.save(user);
+            orderViewRepository.updateUserSummary(saved.getId(), saved.getFirstName(), saved.getLastName(),
+                    saved.getEmail(), saved.getRole() != null ? saved.getRole().getName() : null);
+            publishAfterCommit(new UserChangedEvent(saved.getId()));
+            return saved;
         }
         throw new NullEntityReferenceException("User cannot be 'null'");
     }
 
     @Override
+    @RetryOnConflict
     public void delete(long id) {
         User user = readById(id);
         userRepository.delete(user);
@@ -66,6 +87,13 @@ public class UserServiceImpl implements UserService {
         return userRepository.findAll();
     }
 
+    @Override
+    public CursorPage<User> getPage(long after, int limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        List<User> rows = userRepository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(rows, pageSize, User::getId);
+    }
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         User user = userRepository.findByEmail(username);
@@ -74,4 +102,17 @@ public class UserServiceImpl implements UserService {
         }
         return user;
     }
+
+    private void publishAfterCommit(Object event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    eventPublisher.publishEvent(event);
+                }
+            });
+        } else {
+            eventPublisher.publishEvent(event);
+        }
+    }
 }
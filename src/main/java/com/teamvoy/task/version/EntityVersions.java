@@ -0,0 +1,189 @@
+package com.teamvoy.task.version;
+
+import com.teamvoy.task.event.OrderChangedEvent;
+import com.teamvoy.task.event.ProductChangedEvent;
+import com.teamvoy.task.event.UserChangedEvent;
+import com.teamvoy.task.model.OrderView;
+import com.teamvoy.task.model.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ETags derived from the rows' {@code @Version} columns, so every node computes the same tag for the same
+ * database state. Tags are only handed out for rows that were actually read.
+ *
+ * <p>The last tag computed for each product, order and catalog page is remembered, so a conditional GET
+ * whose {@code If-None-Match} still matches is answered with one memory lookup. Remembered tags are dropped
+ * on this node's change events; a change made through another node is only seen once the tag's TTL runs
+ * out, the same bound the product cache works with.
+ */
+@Component
+public class EntityVersions {
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    private final LinkedHashMap<Long, Known> products = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<Long, Known> orders = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Known> pages = new LinkedHashMap<>(16, 0.75f, true);
+    private long generation;
+
+    public EntityVersions(@Value("${teamvoy.etag.max-entries:10000}") int maxEntries,
+                          @Value("${teamvoy.etag.ttl-seconds:300}") long ttlSeconds) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+
+    public String productTag(Product product) {
+        return "\"p" + product.getId() + "-" + product.getVersion() + "\"";
+    }
+
+    public String orderTag(OrderView view) {
+        return "\"o" + view.getOrderId() + "-" + view.getVersion() + "\"";
+    }
+
+    // Covers the id and version of every product on the page, so any insert, update or delete that shows on
+    // the page changes the tag.
+    public String pageTag(String variant, List<Product> products) {
+        MessageDigest digest = sha256();
+        digest.update(variant.getBytes(StandardCharsets.UTF_8));
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Long.BYTES);
+        for (Product product : products) {
+            buffer.clear();
+            buffer.putLong(product.getId() == null ? 0 : product.getId()).putLong(product.getVersion());
+            digest.update(buffer.array());
+        }
+        byte[] hash = digest.digest();
+        return "\"c" + Long.toHexString(ByteBuffer.wrap(hash).getLong()) + Long.toHexString(ByteBuffer.wrap(hash, 8, 8).getLong()) + "\"";
+    }
+
+    public synchronized long loadToken() {
+        return generation;
+    }
+
+    public String productTag(Product product, long loadToken) {
+        String tag = productTag(product);
+        remember(products, product.getId(), new Known(tag, null, System.nanoTime()), loadToken);
+        return tag;
+    }
+
+    public String orderTag(OrderView view, long loadToken) {
+        String tag = orderTag(view);
+        remember(orders, view.getOrderId(), new Known(tag, view.getUserId(), System.nanoTime()), loadToken);
+        return tag;
+    }
+
+    public String pageTag(String variant, List<Product> products, long loadToken) {
+        String tag = pageTag(variant, products);
+        remember(pages, variant, new Known(tag, null, System.nanoTime()), loadToken);
+        return tag;
+    }
+
+    public String cachedProductTag(long productId) {
+        return lookup(products, productId);
+    }
+
+    public String cachedOrderTag(long orderId) {
+        return lookup(orders, orderId);
+    }
+
+    public String cachedPageTag(String variant) {
+        return lookup(pages, variant);
+    }
+
+    // Only a tag the client actually sent is handed to checkNotModified, which would otherwise set it as the
+    // response's ETag even when it no longer matches.
+    public boolean notModified(WebRequest request, String cachedTag) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (cachedTag == null || ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(cachedTag)) {
+                return request.checkNotModified(cachedTag);
+            }
+        }
+        return false;
+    }
+
+    // Every product change may show on any page, so all page tags go together with the product's own.
+    @EventListener
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        generation++;
+        event.getProductIds().forEach(products::remove);
+        pages.clear();
+    }
+
+    @EventListener
+    public synchronized void onOrderChanged(OrderChangedEvent event) {
+        generation++;
+        orders.remove(event.getOrderId());
+    }
+
+    // The user summary is copied into each of the user's order views.
+    @EventListener
+    public synchronized void onUserChanged(UserChangedEvent event) {
+        generation++;
+        orders.values().removeIf(known -> known.userId != null && known.userId == event.getUserId());
+    }
+
+    private synchronized <K> String lookup(LinkedHashMap<K, Known> tags, K key) {
+        Known known = tags.get(key);
+        if (known == null) {
+            return null;
+        }
+        if (System.nanoTime() - known.recordedAt >= ttlNanos) {
+            tags.remove(key);
+            return null;
+        }
+        return known.tag;
+    }
+
+    // A read that raced with a change event is not remembered, otherwise the old tag would stay current.
+    private synchronized <K> void remember(LinkedHashMap<K, Known> tags, K key, Known known, long loadToken) {
+        if (key == null || loadToken != generation) {
+            return;
+        }
+        tags.put(key, known);
+        Iterator<Known> eldest = tags.values().iterator();
+        while (tags.size() > maxEntries && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class Known {
+        private final String tag;
+        private final Long userId;
+        private final long recordedAt;
+
+        private Known(String tag, Long userId, long recordedAt) {
+            this.tag = tag;
+            this.userId = userId;
+            this.recordedAt = recordedAt;
+        }
+    }
+}
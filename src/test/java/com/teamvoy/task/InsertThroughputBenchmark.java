@@ -0,0 +1,96 @@
+package com.teamvoy.task;
+
+import com.teamvoy.task.dto.order.OrderRequest;
+import com.teamvoy.task.model.User;
+import com.teamvoy.task.repository.UserRepository;
+import com.teamvoy.task.service.OrderService;
+import com.teamvoy.task.service.ProductImportService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows inserted per second by order placement and by the bulk product import, against the in-memory
+ * database. Not part of the test run; start it with {@link #main}. {@code batchSize = 1} turns JDBC
+ * batching off and stands for the old behaviour; for the numbers with IDENTITY ids, run this class on
+ * the commit before the switch to pooled sequences.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class InsertThroughputBenchmark {
+    private static final int IMPORT_ROWS = 500;
+    // One order row, its view row and three line rows.
+    private static final int ORDER_ROWS = 5;
+
+    @Param({"1", "50"})
+    public int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private ProductImportService productImportService;
+    private User user;
+    private List<OrderRequest> orderRequests;
+    private long imports;
+    private String csv;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(TeamvoyApplication.class).properties(
+                "server.port=0",
+                "logging.level.root=WARN",
+                "spring.jpa.show-sql=false",
+                "spring.datasource.url=jdbc:h2:mem:insert-benchmark-" + batchSize + ";DB_CLOSE_DELAY=-1",
+                "spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                "teamvoy.order-expiry.wheel.enabled=false").run();
+        orderService = context.getBean(OrderService.class);
+        productImportService = context.getBean(ProductImportService.class);
+        user = context.getBean(UserRepository.class).findById(2L).orElseThrow();
+        context.getBean(JdbcTemplate.class).update("UPDATE products SET amount = 1000000000");
+        orderRequests = List.of(new OrderRequest(1L, 1), new OrderRequest(2L, 1), new OrderRequest(3L, 1));
+    }
+
+    // Fresh names, so every row is an insert rather than a merge into an existing product.
+    @Setup(Level.Invocation)
+    public void nextImport() {
+        StringBuilder rows = new StringBuilder("name,amount,price\n");
+        long run = imports++;
+        for (int i = 0; i < IMPORT_ROWS; i++) {
+            rows.append("Product ").append(run).append('-').append(i).append(",10,19.99\n");
+        }
+        csv = rows.toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDER_ROWS)
+    public Object placeOrder() {
+        return orderService.placeOrder(orderRequests, user);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(IMPORT_ROWS)
+    public Object importProducts() throws IOException {
+        return productImportService.importCsv(new StringReader(csv));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(InsertThroughputBenchmark.class.getSimpleName()).build()).run();
+    }
+}
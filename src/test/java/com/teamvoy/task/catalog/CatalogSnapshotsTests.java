@@ -0,0 +1,112 @@
+package com.teamvoy.task.catalog;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teamvoy.task.event.ProductChangedEvent;
+import com.teamvoy.task.model.Product;
+import com.teamvoy.task.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+public class CatalogSnapshotsTests {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private CatalogSnapshots snapshots;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class))).thenReturn(List.of(
+                new Product(1L, "Laptop", 10, 1000),
+                new Product(2L, "Phone", 5, 500)));
+        snapshots = new CatalogSnapshots(productRepository, objectMapper, 60_000);
+        snapshots.load();
+    }
+
+    @Test
+    void testLoadEncodesCatalogInIdOrder() throws Exception {
+        JsonNode json = objectMapper.readTree(snapshots.current().getJson());
+
+        assertEquals(2, json.size());
+        assertEquals("Laptop", json.get(0).get("name").asText());
+        assertEquals(2, json.get(1).get("id").asLong());
+    }
+
+    @Test
+    void testGzipMatchesJson() throws Exception {
+        CatalogSnapshot snapshot = snapshots.current();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(snapshot.getGzip()))) {
+            assertArrayEquals(snapshot.getJson(), in.readAllBytes());
+        }
+    }
+
+    @Test
+    void testChangeSwapsInNewSnapshot() throws Exception {
+        CatalogSnapshot before = snapshots.current();
+        when(productRepository.findAllById(Set.of(2L))).thenReturn(List.of(new Product(2L, "Phone", 3, 500)));
+
+        snapshots.onProductChanged(ProductChangedEvent.stockOf(List.of(2L)));
+        assertSame(before, snapshots.current());
+        snapshots.refresh();
+
+        CatalogSnapshot after = snapshots.current();
+        assertNotSame(before, after);
+        assertNotEquals(before.getEtag(), after.getEtag());
+        assertEquals(5, objectMapper.readTree(before.getJson()).get(1).get("amount").asLong());
+        assertEquals(3, objectMapper.readTree(after.getJson()).get(1).get("amount").asLong());
+    }
+
+    @Test
+    void testRemovedProductDisappears() throws Exception {
+        when(productRepository.findAllById(Set.of(1L))).thenReturn(List.of());
+
+        snapshots.onProductChanged(ProductChangedEvent.removed(1L));
+        snapshots.refresh();
+
+        JsonNode json = objectMapper.readTree(snapshots.current().getJson());
+        assertEquals(1, json.size());
+        assertEquals(2, json.get(0).get("id").asLong());
+    }
+
+    @Test
+    void testBurstOfChangesCostsOneRebuild() {
+        CatalogSnapshot before = snapshots.current();
+        when(productRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(
+                new Product(1L, "Laptop", 9, 1000), new Product(2L, "Phone", 4, 500)));
+
+        for (int i = 0; i < 10; i++) {
+            snapshots.onProductChanged(ProductChangedEvent.stockOf(List.of(1L, 2L)));
+        }
+        snapshots.refresh();
+        snapshots.refresh();
+
+        assertEquals(before.getVersion() + 1, snapshots.current().getVersion());
+        verify(productRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    void testEmptyCatalogIsEmptyArray() {
+        CatalogSnapshot snapshot = CatalogSnapshot.of(1L, "\"s\"", List.of());
+
+        assertEquals("[]", new String(snapshot.getJson()));
+        assertEquals(0, snapshot.getSize());
+    }
+}
@@ -0,0 +1,93 @@
+package com.teamvoy.task.catalog;
+
+import com.teamvoy.task.event.ProductChangedEvent;
+import com.teamvoy.task.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductCacheTests {
+
+    @Test
+    void testGetReturnsCopyOfCachedProduct() {
+        ProductCache cache = new ProductCache(true, 10, 60);
+        Product product = new Product(1L, "Laptop", 10, 1000);
+        cache.put(product, cache.loadToken());
+
+        Product cached = cache.get(1L);
+
+        assertNotNull(cached);
+        assertNotSame(product, cached);
+        assertEquals("Laptop", cached.getName());
+        assertEquals(1L, cache.stats().get("hits"));
+    }
+
+    @Test
+    void testCachedCopyKeepsVersion() {
+        ProductCache cache = new ProductCache(true, 10, 60);
+        cache.put(new Product(1L, "Laptop", 10, 1000, 7), cache.loadToken());
+
+        assertEquals(7, cache.get(1L).getVersion());
+    }
+
+    @Test
+    void testMissIsCounted() {
+        ProductCache cache = new ProductCache(true, 10, 60);
+
+        assertNull(cache.get(42L));
+        assertEquals(1L, cache.stats().get("misses"));
+    }
+
+    @Test
+    void testEldestEntryEvictedWhenFull() {
+        ProductCache cache = new ProductCache(true, 2, 60);
+        cache.put(new Product(1L, "A", 1, 1), cache.loadToken());
+        cache.put(new Product(2L, "B", 1, 1), cache.loadToken());
+        cache.get(1L);
+        cache.put(new Product(3L, "C", 1, 1), cache.loadToken());
+
+        assertNotNull(cache.get(1L));
+        assertNull(cache.get(2L));
+        assertEquals(1L, cache.stats().get("evictions"));
+    }
+
+    @Test
+    void testExpiredEntryIsNotReturned() {
+        ProductCache cache = new ProductCache(true, 10, 0);
+        cache.put(new Product(1L, "A", 1, 1), cache.loadToken());
+
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void testProductChangeInvalidatesEntry() {
+        ProductCache cache = new ProductCache(true, 10, 60);
+        cache.put(new Product(1L, "A", 1, 1), cache.loadToken());
+
+        cache.onProductChanged(ProductChangedEvent.stockOf(List.of(1L)));
+
+        assertNull(cache.get(1L));
+        assertEquals(1L, cache.stats().get("invalidations"));
+    }
+
+    @Test
+    void testLoadRacingWithInvalidationIsDropped() {
+        ProductCache cache = new ProductCache(true, 10, 60);
+        long token = cache.loadToken();
+        cache.evict(List.of(1L));
+
+        cache.put(new Product(1L, "stale", 1, 1), token);
+
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void testDisabledCacheNeverStores() {
+        ProductCache cache = new ProductCache(false, 10, 60);
+        cache.put(new Product(1L, "A", 1, 1), cache.loadToken());
+
+        assertNull(cache.get(1L));
+    }
+}
@@ -0,0 +1,122 @@
+package com.teamvoy.task.catalog;
+
+import com.teamvoy.task.dto.goodsDto.ProductRangeQuery;
+import com.teamvoy.task.dto.page.CursorPage;
+import com.teamvoy.task.event.ProductChangedEvent;
+import com.teamvoy.task.exception.InvalidCursorException;
+import com.teamvoy.task.model.Product;
+import com.teamvoy.task.money.Money;
+import com.teamvoy.task.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class ProductRangeIndexTests {
+
+    private ProductRangeIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductRangeIndex(mock(ProductRepository.class));
+        index.index(new Product(1L, "Laptop", 10, Money.ofMajor(1000)));
+        index.index(new Product(2L, "Mouse", 0, Money.parse("25.5")));
+        index.index(new Product(3L, "Pen", 200, Money.ofMajor(2)));
+        index.index(new Product(4L, "Monitor", 3, Money.ofMajor(300)));
+        index.index(new Product(5L, "Cable", 1, Money.ofMajor(2)));
+    }
+
+    @Test
+    void testPriceRangeIsSortedByPrice() {
+        ProductRangeQuery query = new ProductRangeQuery();
+        query.setMinPrice(new BigDecimal("2"));
+        query.setMaxPrice(new BigDecimal("300"));
+
+        assertEquals(List.of(3L, 5L, 2L, 4L), index.scan(query, 10).getItems());
+    }
+
+    @Test
+    void testAmountBelowIsSortedByAmount() {
+        ProductRangeQuery query = new ProductRangeQuery();
+        query.setAmountBelow(4L);
+
+        assertEquals(List.of(2L, 5L, 4L), index.scan(query, 10).getItems());
+    }
+
+    @Test
+    void testTopCheapestInStockPagesWithCursor() {
+        ProductRangeQuery query = new ProductRangeQuery();
+        query.setInStock(true);
+        query.setSort("price");
+
+        CursorPage<Long> first = index.scan(query, 2);
+        assertEquals(List.of(3L, 5L), first.getItems());
+        assertNotNull(first.getNextCursor());
+
+        query.setCursor(first.getNextCursor());
+        CursorPage<Long> second = index.scan(query, 2);
+        assertEquals(List.of(4L, 1L), second.getItems());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void testChangesMoveEntries() {
+        index.onProductChanged(ProductChangedEvent.stock(List.of(new Product(1L, "Laptop", 10, Money.ofMajor(1), 1))));
+        index.onProductChanged(ProductChangedEvent.removed(3L));
+        ProductRangeQuery query = new ProductRangeQuery();
+        query.setMaxPrice(new BigDecimal("2"));
+
+        assertEquals(List.of(1L, 5L), index.scan(query, 10).getItems());
+    }
+
+    @Test
+    void testOlderCopyArrivingLateIsIgnored() {
+        index.onProductChanged(ProductChangedEvent.stock(List.of(new Product(4L, "Monitor", 0, Money.ofMajor(300), 2))));
+        index.onProductChanged(ProductChangedEvent.stock(List.of(new Product(4L, "Monitor", 2, Money.ofMajor(300), 1))));
+        ProductRangeQuery query = new ProductRangeQuery();
+        query.setInStock(true);
+
+        assertFalse(index.scan(query, 10).getItems().contains(4L));
+    }
+
+    @Test
+    void testCopyArrivingAfterRemovalDoesNotBringTheProductBack() {
+        index.onProductChanged(ProductChangedEvent.saved(new Product(4L, "Monitor", 3, Money.ofMajor(300), 2)));
+        index.onProductChanged(ProductChangedEvent.removed(4L));
+        index.onProductChanged(ProductChangedEvent.saved(new Product(4L, "Monitor", 3, Money.ofMajor(300), 1)));
+        index.onProductChanged(ProductChangedEvent.saved(new Product(4L, "Monitor", 3, Money.ofMajor(300), 2)));
+
+        assertFalse(index.scan(new ProductRangeQuery(), 10).getItems().contains(4L));
+    }
+
+    @Test
+    void testRemovalOfAnUnindexedProductBlocksLateCopies() {
+        index.onProductChanged(ProductChangedEvent.removed(9L));
+        index.onProductChanged(ProductChangedEvent.saved(new Product(9L, "Desk", 1, Money.ofMajor(90), 5)));
+
+        assertFalse(index.scan(new ProductRangeQuery(), 10).getItems().contains(9L));
+    }
+
+    @Test
+    void testPriceBoundsAreExactToTheCent() {
+        ProductRangeQuery query = new ProductRangeQuery();
+        query.setMinPrice(new BigDecimal("25.50"));
+        query.setMaxPrice(new BigDecimal("25.50"));
+        assertEquals(List.of(2L), index.scan(query, 10).getItems());
+
+        query.setMaxPrice(new BigDecimal("25.49"));
+        assertEquals(List.of(), index.scan(query, 10).getItems());
+    }
+
+    @Test
+    void testMalformedCursorIsRejected() {
+        ProductRangeQuery query = new ProductRangeQuery();
+        query.setCursor("garbage");
+
+        assertThrows(InvalidCursorException.class, () -> index.scan(query, 10));
+    }
+}
@@ -0,0 +1,67 @@
+package com.teamvoy.task.catalog;
+
+import com.teamvoy.task.event.ProductChangedEvent;
+import com.teamvoy.task.model.Product;
+import com.teamvoy.task.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class ProductSearchIndexTests {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(mock(ProductRepository.class), 0.34);
+        index.index(new Product(1L, "Iphone 12 pro", 5, 35000));
+        index.index(new Product(2L, "Iphone 13 pro", 6, 45000));
+        index.index(new Product(3L, "Galaxy S23", 4, 40000));
+    }
+
+    @Test
+    void testPrefixAutocomplete() {
+        assertEquals(List.of(1L, 2L), index.search("iph", 10));
+        assertEquals(List.of(3L), index.search("Gal", 10));
+    }
+
+    @Test
+    void testWordPrefixInsideName() {
+        assertEquals(List.of(2L), index.search("13", 10));
+    }
+
+    @Test
+    void testSubstringMatch() {
+        assertEquals(List.of(1L, 2L), index.search("phone", 10));
+    }
+
+    @Test
+    void testTypoTolerance() {
+        assertTrue(index.search("galaxi", 10).contains(3L));
+    }
+
+    @Test
+    void testRenameUpdatesIndex() {
+        index.onProductChanged(ProductChangedEvent.saved(new Product(3L, "Pixel 8", 4, 40000)));
+
+        assertTrue(index.search("galaxy", 10).isEmpty());
+        assertEquals(List.of(3L), index.search("pix", 10));
+    }
+
+    @Test
+    void testRemoveDropsProduct() {
+        index.onProductChanged(ProductChangedEvent.removed(1L));
+
+        assertEquals(List.of(2L), index.search("iphone 1", 10));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void testLimitIsApplied() {
+        assertEquals(1, index.search("iphone", 1).size());
+    }
+}
@@ -2,22 +2,35 @@ package com.teamvoy.task.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.teamvoy.task.dto.order.OrderRequest;
+import com.teamvoy.task.dto.order.OrderSearchQuery;
+import com.teamvoy.task.dto.order.PaymentResult;
+import com.teamvoy.task.dto.page.CursorPage;
+import com.teamvoy.task.event.OrderChangedEvent;
+import com.teamvoy.task.idempotency.IdempotencyStore;
+import com.teamvoy.task.intake.OrderIntakeQueue;
 import com.teamvoy.task.model.Order;
+import com.teamvoy.task.model.OrderView;
+import com.teamvoy.task.model.OrderedProduct;
 import com.teamvoy.task.model.Role;
 import com.teamvoy.task.model.Status;
 import com.teamvoy.task.model.User;
 import com.teamvoy.task.service.OrderService;
+import com.teamvoy.task.service.OrderViewService;
 import com.teamvoy.task.service.UserService;
+import com.teamvoy.task.version.EntityVersions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
@@ -37,6 +50,18 @@ public class OrderControllerTests {
     @Mock
     private UserService userService;
 
+    @Spy
+    private EntityVersions entityVersions = new EntityVersions(100, 60);
+
+    @Mock
+    private OrderIntakeQueue orderIntakeQueue;
+
+    @Spy
+    private IdempotencyStore idempotencyStore = new IdempotencyStore(100, 60, 1000);
+
+    @Mock
+    private OrderViewService orderViewService;
+
     @InjectMocks
     private OrderController orderController;
 
@@ -68,14 +93,16 @@ public class OrderControllerTests {
         order1.setUser(user);
         order1.setStatus(Status.NOT_PAID);
 
-        List<Order> orderList = List.of(order, order1);
-        when(orderService.getAll()).thenReturn(orderList);
+        List<OrderView> orderList = List.of(OrderView.of(order), OrderView.of(order1));
+        when(orderViewService.getPage(0L, 20)).thenReturn(new CursorPage<>(orderList, "2"));
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/orders/all"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.length()").value(orderList.size()));
+                .andExpect(jsonPath("$.items.length()").value(orderList.size()))
+                .andExpect(jsonPath("$.items[0].user.role").value("CLIENT"))
+                .andExpect(jsonPath("$.nextCursor").value("2"));
 
-        verify(orderService, times(1)).getAll();
+        verify(orderViewService, times(1)).getPage(0L, 20);
     }
 
     @Test
@@ -94,14 +121,41 @@ public class OrderControllerTests {
         order.setId(orderId);
         order.setUser(user);
         order.setStatus(Status.NOT_PAID);
-        when(orderService.readById(orderId)).thenReturn(order);
+        order.setOrderedProducts(List.of(new OrderedProduct(3L, "Product", 2, 1000)));
+        when(orderViewService.readById(orderId)).thenReturn(OrderView.of(order));
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/orders")
                         .param("id", String.valueOf(orderId)))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.id").value(order.getId()));
+                .andExpect(jsonPath("$.id").value(order.getId()))
+                .andExpect(jsonPath("$.goods[0].amount").value(2));
 
-        verify(orderService, times(1)).readById(orderId);
+        verify(orderViewService, times(1)).readById(orderId);
+        verify(orderService, never()).readById(orderId);
+    }
+
+    @Test
+    public void testGetByIdNotModified() throws Exception {
+        long orderId = 1L;
+        Order order = new Order();
+        order.setId(orderId);
+        OrderView view = OrderView.of(order);
+        view.setVersion(3);
+        when(orderViewService.readById(orderId)).thenReturn(view);
+        String etag = entityVersions.orderTag(view);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/orders")
+                        .param("id", String.valueOf(orderId))
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        view.setVersion(4);
+        entityVersions.onOrderChanged(OrderChangedEvent.of(OrderChangedEvent.Kind.UPDATED, orderId));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/orders")
+                        .param("id", String.valueOf(orderId))
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, entityVersions.orderTag(view)));
     }
 
     @Test
@@ -121,8 +175,7 @@ public class OrderControllerTests {
         createdOrder.setStatus(Status.NOT_PAID);
         user.setOrders(List.of(createdOrder));
         when(userService.readById(userId)).thenReturn(user);
-        when(orderService.prepareOrder(anyList(), any(User.class))).thenReturn(createdOrder);
-        when(orderService.create(any(Order.class))).thenReturn(createdOrder);
+        when(orderService.placeOrder(anyList(), any(User.class))).thenReturn(createdOrder);
 
         mockMvc.perform(MockMvcRequestBuilders.post("/api/orders")
                         .param("userId", String.valueOf(userId))
@@ -133,8 +186,32 @@ public class OrderControllerTests {
                 .andReturn();
 
         verify(userService, times(1)).readById(userId);
-        verify(orderService, times(1)).prepareOrder(anyList(), any(User.class));
-        verify(orderService, times(1)).create(any(Order.class));
+        verify(orderService, times(1)).placeOrder(anyList(), any(User.class));
+    }
+
+    @Test
+    public void testCreateThroughIntakeQueue() throws Exception {
+        Role role = new Role();
+        role.setName("CLIENT");
+        User user = new User();
+        user.setId(1L);
+        user.setRole(role);
+        Order placedOrder = new Order();
+        placedOrder.setId(5L);
+        placedOrder.setUser(user);
+        placedOrder.setStatus(Status.NOT_PAID);
+        when(userService.readById(1L)).thenReturn(user);
+        when(orderIntakeQueue.isEnabled()).thenReturn(true);
+        when(orderIntakeQueue.place(anyList(), eq(user))).thenReturn(placedOrder);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/orders")
+                        .param("userId", "1")
+                        .content(asJsonString(List.of(new OrderRequest(1L, 2))))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(5));
+
+        verify(orderService, never()).placeOrder(anyList(), any(User.class));
     }
 
     @Test
@@ -158,15 +235,47 @@ public class OrderControllerTests {
         order2.setStatus(Status.PAID);
         order2.setId(2L);
 
-        List<Order> orderList = Arrays.asList(order, order2);
-        when(orderService.findByUserId(userId)).thenReturn(orderList);
+        List<OrderView> orderList = Arrays.asList(OrderView.of(order), OrderView.of(order2));
+        when(orderViewService.findByUserId(userId)).thenReturn(orderList);
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/orders/users")
                         .param("userId", String.valueOf(userId)))
                 .andExpect(status().isAccepted())
                 .andExpect(jsonPath("$.length()").value(orderList.size()));
 
-        verify(orderService, times(1)).findByUserId(userId);
+        verify(orderViewService, times(1)).findByUserId(userId);
+    }
+
+    @Test
+    public void testSearchBindsFilters() throws Exception {
+        Role role = new Role();
+        role.setName("CLIENT");
+        User user = new User();
+        user.setId(2L);
+        user.setRole(role);
+        Order order = new Order();
+        order.setId(7L);
+        order.setUser(user);
+        order.setStatus(Status.NOT_PAID);
+        when(orderViewService.search(any(OrderSearchQuery.class), eq(10)))
+                .thenReturn(new CursorPage<>(List.of(OrderView.of(order)), "7"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/orders/search")
+                        .param("userId", "2")
+                        .param("status", "NOT_PAID")
+                        .param("from", "2026-01-01T00:00:00")
+                        .param("minSum", "100")
+                        .param("sort", "-sum")
+                        .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(7))
+                .andExpect(jsonPath("$.nextCursor").value("7"));
+
+        verify(orderViewService).search(argThat(query -> query.getUserId() == 2L
+                && query.getStatus() == Status.NOT_PAID
+                && query.getFrom().equals(LocalDateTime.of(2026, 1, 1, 0, 0))
+                && query.getMinSum().compareTo(new BigDecimal("100")) == 0
+                && query.descending()), eq(10));
     }
 
     @Test
@@ -181,6 +290,64 @@ public class OrderControllerTests {
         verify(orderService, times(1)).paidTheOrder(orderId);
     }
 
+    @Test
+    public void testPayingRetryWithSameKeyIsNotRepeated() throws Exception {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(MockMvcRequestBuilders.post("/api/orders/paying")
+                            .param("orderId", "1")
+                            .header("Idempotency-Key", "pay-1"))
+                    .andExpect(status().isAccepted())
+                    .andExpect(content().string("Your order with id 1 has been paid"));
+        }
+
+        verify(orderService, times(1)).paidTheOrder(1L);
+    }
+
+    @Test
+    public void testPayingBatchReturnsResultPerOrder() throws Exception {
+        when(orderService.payOrders(1L, List.of(3L, 4L))).thenReturn(List.of(
+                new PaymentResult(3L, true, "Your order with id 3 has been paid"),
+                new PaymentResult(4L, false, "You do not have enough balance to pay for the order")));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/orders/paying/batch")
+                        .param("userId", "1")
+                        .content(asJsonString(List.of(3L, 4L)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].orderId").value(3))
+                .andExpect(jsonPath("$[0].paid").value(true))
+                .andExpect(jsonPath("$[1].paid").value(false));
+
+        verify(orderService, times(1)).payOrders(1L, List.of(3L, 4L));
+    }
+
+    @Test
+    public void testCreateRetryWithSameKeyReturnsFirstOrder() throws Exception {
+        Role role = new Role();
+        role.setName("CLIENT");
+        User user = new User();
+        user.setId(1L);
+        user.setRole(role);
+        Order createdOrder = new Order();
+        createdOrder.setId(9L);
+        createdOrder.setUser(user);
+        createdOrder.setStatus(Status.NOT_PAID);
+        when(userService.readById(1L)).thenReturn(user);
+        when(orderService.placeOrder(anyList(), any(User.class))).thenReturn(createdOrder);
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(MockMvcRequestBuilders.post("/api/orders")
+                            .param("userId", "1")
+                            .header("Idempotency-Key", "order-1")
+                            .content(asJsonString(List.of(new OrderRequest(1L, 2))))
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.id").value(9));
+        }
+
+        verify(orderService, times(1)).placeOrder(anyList(), any(User.class));
+    }
+
     @Test
     void testUpdateOrder() throws Exception {
         Role role = new Role();
@@ -209,7 +376,7 @@ public class OrderControllerTests {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.id").value(updatedOrder.getId()))
                 .andExpect(jsonPath("$.user.id").value(user.getId()))
-                .andExpect(jsonPath("$.sum").value(updatedOrder.getSum()))
+                .andExpect(jsonPath("$.sum").value(0.0))
                 .andExpect(jsonPath("$.status").value(updatedOrder.getStatus().toString()));
     }
 
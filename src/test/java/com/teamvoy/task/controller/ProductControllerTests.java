@@ -1,14 +1,24 @@
 package com.teamvoy.task.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teamvoy.task.catalog.CatalogSnapshot;
+import com.teamvoy.task.catalog.CatalogSnapshots;
 import com.teamvoy.task.dto.goodsDto.GoodsRequest;
+import com.teamvoy.task.dto.goodsDto.ImportReport;
+import com.teamvoy.task.dto.goodsDto.ProductRangeQuery;
+import com.teamvoy.task.dto.page.CursorPage;
+import com.teamvoy.task.event.ProductChangedEvent;
 import com.teamvoy.task.model.Product;
+import com.teamvoy.task.service.ProductImportService;
 import com.teamvoy.task.service.ProductService;
+import com.teamvoy.task.version.EntityVersions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
@@ -16,10 +26,16 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 public class ProductControllerTests {
@@ -29,6 +45,15 @@ public class ProductControllerTests {
     @Mock
     private ProductService productService;
 
+    @Mock
+    private ProductImportService productImportService;
+
+    @Spy
+    private EntityVersions entityVersions = new EntityVersions(100, 60);
+
+    @Mock
+    private CatalogSnapshots catalogSnapshots;
+
     @InjectMocks
     private ProductController productController;
 
@@ -41,13 +66,83 @@ public class ProductControllerTests {
     @Test
     public void testGetAll() throws Exception {
         List<Product> productList = Arrays.asList(new Product(), new Product());
-        when(productService.getAll()).thenReturn(productList);
+        when(productService.getPage(0L, 20)).thenReturn(new CursorPage<>(productList, "2"));
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/goods"))
                 .andExpect(MockMvcResultMatchers.status().isOk())
-                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(productList.size()));
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items.length()").value(productList.size()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor").value("2"));
+
+        verify(productService, times(1)).getPage(0L, 20);
+    }
+
+    @Test
+    public void testGetAllAfterCursor() throws Exception {
+        when(productService.getPage(5L, 10)).thenReturn(new CursorPage<>(List.of(new Product()), null));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/goods")
+                        .param("after", "5")
+                        .param("limit", "10"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor").doesNotExist());
+
+        verify(productService, times(1)).getPage(5L, 10);
+    }
+
+    @Test
+    public void testGetAllWithRangeFilter() throws Exception {
+        when(productService.findInRange(any(ProductRangeQuery.class), eq(5)))
+                .thenReturn(new CursorPage<>(List.of(new Product(2L, "Mouse", 3, 250)), null));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/goods")
+                        .param("minPrice", "100")
+                        .param("maxPrice", "300")
+                        .param("inStock", "true")
+                        .param("limit", "5"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[0].id").value(2));
+
+        verify(productService, times(1)).findInRange(argThat(query ->
+                query.getMinPrice().compareTo(new BigDecimal("100")) == 0
+                        && query.getMaxPrice().compareTo(new BigDecimal("300")) == 0 && query.isInStock()), eq(5));
+        verify(productService, never()).getPage(anyLong(), anyInt());
+    }
+
+    @Test
+    public void testGetSnapshot() throws Exception {
+        byte[] product = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+        CatalogSnapshot snapshot = CatalogSnapshot.of(1L, "\"s-1\"", List.of(product));
+        when(catalogSnapshots.current()).thenReturn(snapshot);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/goods/snapshot"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"s-1\""))
+                .andExpect(MockMvcResultMatchers.content().string("[{\"id\":1}]"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/goods/snapshot")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(MockMvcResultMatchers.content().bytes(snapshot.getGzip()));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/goods/snapshot")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"s-1\""))
+                .andExpect(MockMvcResultMatchers.status().isNotModified());
+
+        verify(productService, never()).getPage(anyLong(), anyInt());
+    }
+
+    @Test
+    public void testSearch() throws Exception {
+        List<Product> found = List.of(new Product(1L, "Iphone 13 pro", 6, 45000));
+        when(productService.search("iph", 10)).thenReturn(found);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/goods/search").param("q", "iph"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].name").value("Iphone 13 pro"));
 
-        verify(productService, times(1)).getAll();
+        verify(productService, times(1)).search("iph", 10);
     }
 
     @Test
@@ -63,6 +158,71 @@ public class ProductControllerTests {
         verify(productService, times(1)).readById(productId);
     }
 
+    @Test
+    public void testGetByIdNotModified() throws Exception {
+        long productId = 1L;
+        Product product = new Product(productId, "Laptop", 10, 1000, 2);
+        when(productService.readById(productId)).thenReturn(product);
+        String etag = entityVersions.productTag(product);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/goods/{id}", productId)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, etag));
+    }
+
+    @Test
+    public void testRepeatedConditionalGetSkipsTheDatabase() throws Exception {
+        long productId = 1L;
+        Product product = new Product(productId, "Laptop", 10, 1000, 2);
+        when(productService.readById(productId)).thenReturn(product);
+        String etag = entityVersions.productTag(product);
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/goods/{id}", productId)
+                            .header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(MockMvcResultMatchers.status().isNotModified())
+                    .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, etag));
+        }
+
+        verify(productService, times(1)).readById(productId);
+    }
+
+    @Test
+    public void testRangeQueryIsTaggedAndCached() throws Exception {
+        List<Product> found = List.of(new Product(1L, "Laptop", 10, 1000, 0));
+        when(productService.findInRange(any(ProductRangeQuery.class), eq(20))).thenReturn(new CursorPage<>(found, null));
+
+        String etag = mockMvc.perform(MockMvcRequestBuilders.get("/api/goods").param("inStock", "true"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/goods").param("inStock", "true")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(MockMvcResultMatchers.status().isNotModified());
+
+        entityVersions.onProductChanged(ProductChangedEvent.stockOf(List.of(1L)));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/goods").param("inStock", "true")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(MockMvcResultMatchers.status().isNotModified());
+
+        verify(productService, times(2)).findInRange(any(ProductRangeQuery.class), eq(20));
+    }
+
+    @Test
+    public void testGetAllReturnsNewTagAfterProductChange() throws Exception {
+        String etag = entityVersions.pageTag("0:20", List.of(new Product(1L, "Laptop", 10, 1000, 0)));
+        List<Product> changed = List.of(new Product(1L, "Laptop", 9, 1000, 1));
+        when(productService.getPage(0L, 20)).thenReturn(new CursorPage<>(changed, null));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/goods")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, entityVersions.pageTag("0:20", changed)));
+
+        verify(productService, times(1)).getPage(0L, 20);
+    }
+
     @Test
     public void testCreate() throws Exception {
         GoodsRequest goodsRequest = new GoodsRequest();
@@ -82,6 +242,35 @@ public class ProductControllerTests {
         verify(productService, times(1)).create(any(Product.class));
     }
 
+    @Test
+    public void testImportCsv() throws Exception {
+        ImportReport report = new ImportReport();
+        report.setRows(2);
+        report.setCreated(2);
+        when(productImportService.importCsv(any())).thenReturn(report);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/goods/import")
+                        .contentType("text/csv")
+                        .content("name,amount,price\nMouse,10,20\nPad,5,3\n"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.created").value(2));
+
+        verify(productImportService, times(1)).importCsv(any());
+        verify(productImportService, never()).importNdjson(any());
+    }
+
+    @Test
+    public void testImportNdjson() throws Exception {
+        when(productImportService.importNdjson(any())).thenReturn(new ImportReport());
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/goods/import")
+                        .contentType("application/x-ndjson")
+                        .content("{\"name\":\"Mouse\",\"amount\":1,\"price\":20}\n"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        verify(productImportService, times(1)).importNdjson(any());
+    }
+
     @Test
     public void testUpdate() throws Exception {
         long productId = 1L;
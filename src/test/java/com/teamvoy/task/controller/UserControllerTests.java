@@ -1,10 +1,15 @@
 package com.teamvoy.task.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teamvoy.task.dto.page.CursorPage;
 import com.teamvoy.task.dto.userDto.UserRequest;
 import com.teamvoy.task.dto.userDto.UserResponse;
+import com.teamvoy.task.model.Order;
+import com.teamvoy.task.model.OrderView;
 import com.teamvoy.task.model.Role;
+import com.teamvoy.task.model.Status;
 import com.teamvoy.task.model.User;
+import com.teamvoy.task.service.OrderViewService;
 import com.teamvoy.task.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -20,6 +25,7 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -30,6 +36,9 @@ public class UserControllerTests {
     @Mock
     private UserService userService;
 
+    @Mock
+    private OrderViewService orderViewService;
+
     @InjectMocks
     private UserController userController;
 
@@ -46,16 +55,24 @@ public class UserControllerTests {
         role.setName("CLIENT");
 
         User user = new User();
+        user.setId(3L);
         user.setRole(role);
+        Order order = new Order();
+        order.setId(11L);
+        order.setUser(user);
+        order.setStatus(Status.PAID);
 
         List<User> userList = Arrays.asList(user);
-        when(userService.getAll()).thenReturn(userList);
+        when(userService.getPage(0L, 20)).thenReturn(new CursorPage<>(userList, null));
+        when(orderViewService.findByUserIds(List.of(3L))).thenReturn(Map.of(3L, List.of(OrderView.of(order))));
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/users/all"))
                 .andExpect(MockMvcResultMatchers.status().isOk())
-                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(userList.size()));
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items.length()").value(userList.size()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[0].userOrders[0].id").value(11));
 
-        verify(userService, times(1)).getAll();
+        verify(userService, times(1)).getPage(0L, 20);
+        verify(orderViewService, times(1)).findByUserIds(List.of(3L));
     }
 
     @Test
@@ -77,6 +94,7 @@ public class UserControllerTests {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(user.getId()));
 
         verify(userService, times(1)).readById(userId);
+        verify(orderViewService, times(1)).findByUserId(userId);
     }
 
     @Test
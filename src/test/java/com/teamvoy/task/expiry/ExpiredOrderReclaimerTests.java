@@ -0,0 +1,152 @@
+package com.teamvoy.task.expiry;
+
+import com.teamvoy.task.event.OrderChangedEvent;
+import com.teamvoy.task.event.ProductChangedEvent;
+import com.teamvoy.task.inventory.InventoryEngine;
+import com.teamvoy.task.repository.OrderJdbcRepository;
+import com.teamvoy.task.repository.SweepLeaseJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ExpiredOrderReclaimerTests {
+
+    @Mock
+    private OrderJdbcRepository orderJdbcRepository;
+
+    @Mock
+    private SweepLeaseJdbcRepository sweepLeaseJdbcRepository;
+
+    @Mock
+    private InventoryEngine inventoryEngine;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private ExpiredOrderReclaimer reclaimer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        when(sweepLeaseJdbcRepository.tryAcquire(anyInt(), eq("node-a"), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(true);
+        when(sweepLeaseJdbcRepository.renew(anyInt(), eq("node-a"), any(LocalDateTime.class))).thenReturn(true);
+        reclaimer = new ExpiredOrderReclaimer(orderJdbcRepository, sweepLeaseJdbcRepository, inventoryEngine, eventPublisher,
+                transactionTemplate, 2, 1, 60_000, "node-a");
+    }
+
+    @Test
+    void testSweepWorksInChunksUntilShortChunk() {
+        when(orderJdbcRepository.lockUnpaidCreatedBefore(any(LocalDateTime.class), eq(1), eq(0), eq(2)))
+                .thenReturn(List.of(1L, 2L), List.of(3L));
+        when(orderJdbcRepository.sumLinesByProduct(anyCollection())).thenReturn(Map.of(10L, 4L));
+
+        assertEquals(3, reclaimer.reclaimExpired());
+
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(orderJdbcRepository).restock(List.of(1L, 2L));
+        verify(orderJdbcRepository).deleteAll(List.of(1L, 2L));
+        verify(orderJdbcRepository).restock(List.of(3L));
+        verify(orderJdbcRepository).deleteAll(List.of(3L));
+        verify(eventPublisher, times(2)).publishEvent(any(ProductChangedEvent.class));
+        verify(eventPublisher, times(3)).publishEvent(any(OrderChangedEvent.class));
+        verify(sweepLeaseJdbcRepository).ensurePartitions(1);
+        verify(sweepLeaseJdbcRepository).release(0, "node-a");
+    }
+
+    @Test
+    void testPartitionLeasedByAnotherNodeIsSkipped() {
+        when(sweepLeaseJdbcRepository.tryAcquire(anyInt(), eq("node-a"), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(false);
+
+        assertEquals(0, reclaimer.reclaimExpired());
+
+        verify(orderJdbcRepository, never()).lockUnpaidCreatedBefore(any(LocalDateTime.class), anyInt(), anyInt(), anyInt());
+        verify(sweepLeaseJdbcRepository, never()).release(anyInt(), anyString());
+    }
+
+    @Test
+    void testRefreshTakesAFairShareAndSweepsKeepIt() {
+        ExpiredOrderReclaimer reclaimer = new ExpiredOrderReclaimer(orderJdbcRepository, sweepLeaseJdbcRepository, inventoryEngine,
+                eventPublisher, transactionTemplate, 2, 4, 60_000, "node-a");
+        when(sweepLeaseJdbcRepository.countLiveNodes(any(LocalDateTime.class))).thenReturn(2);
+
+        Set<Integer> held = reclaimer.refreshLeases();
+        reclaimer.reclaimExpired();
+
+        assertEquals(2, held.size());
+        verify(sweepLeaseJdbcRepository).heartbeat(eq("node-a"), any(LocalDateTime.class));
+        held.forEach(partition -> verify(sweepLeaseJdbcRepository, never()).release(partition, "node-a"));
+        verify(sweepLeaseJdbcRepository, times(2)).release(anyInt(), eq("node-a"));
+    }
+
+    @Test
+    void testRefreshGivesBackPartitionsAboveTheShare() {
+        ExpiredOrderReclaimer reclaimer = new ExpiredOrderReclaimer(orderJdbcRepository, sweepLeaseJdbcRepository, inventoryEngine,
+                eventPublisher, transactionTemplate, 2, 4, 60_000, "node-a");
+        when(sweepLeaseJdbcRepository.countLiveNodes(any(LocalDateTime.class))).thenReturn(1, 2);
+
+        assertEquals(4, reclaimer.refreshLeases().size());
+        Set<Integer> kept = reclaimer.refreshLeases();
+
+        assertEquals(2, kept.size());
+        verify(sweepLeaseJdbcRepository, times(2)).release(anyInt(), eq("node-a"));
+        kept.forEach(partition -> verify(sweepLeaseJdbcRepository, never()).release(partition, "node-a"));
+    }
+
+    @Test
+    void testNothingDueTouchesNothing() {
+        when(orderJdbcRepository.lockUnpaidCreatedBefore(any(LocalDateTime.class), eq(1), eq(0), eq(2))).thenReturn(List.of());
+
+        assertEquals(0, reclaimer.reclaimExpired());
+
+        verify(orderJdbcRepository, never()).restock(anyCollection());
+        verify(orderJdbcRepository, never()).deleteAll(anyCollection());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void testReclaimSkipsOrdersPaidMeanwhile() {
+        when(orderJdbcRepository.lockUnpaid(List.of(1L, 2L))).thenReturn(List.of(2L));
+        when(orderJdbcRepository.lockUnpaid(List.of(3L))).thenReturn(List.of());
+        when(orderJdbcRepository.sumLinesByProduct(List.of(2L))).thenReturn(Map.of(10L, 1L));
+
+        assertEquals(Set.of(2L), reclaimer.reclaim(List.of(1L, 2L, 3L)));
+
+        verify(orderJdbcRepository).restock(List.of(2L));
+        verify(orderJdbcRepository).deleteAll(List.of(2L));
+        verify(orderJdbcRepository, times(1)).deleteAll(anyCollection());
+    }
+
+    @Test
+    void testEngineGetsStockBackInsteadOfDatabase() {
+        when(inventoryEngine.isEnabled()).thenReturn(true);
+        when(orderJdbcRepository.lockUnpaid(List.of(1L))).thenReturn(List.of(1L));
+        when(orderJdbcRepository.sumLinesByProduct(List.of(1L))).thenReturn(Map.of(10L, 4L, 11L, 1L));
+
+        reclaimer.reclaim(List.of(1L));
+
+        verify(orderJdbcRepository, never()).restock(anyCollection());
+        verify(orderJdbcRepository).deleteAll(List.of(1L));
+        verify(inventoryEngine).release(10L, 4L);
+        verify(inventoryEngine).release(11L, 1L);
+    }
+}
@@ -0,0 +1,179 @@
+package com.teamvoy.task.expiry;
+
+import com.teamvoy.task.event.OrderChangedEvent;
+import com.teamvoy.task.model.Order;
+import com.teamvoy.task.model.Status;
+import com.teamvoy.task.repository.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class OrderExpiryWheelTests {
+    private static final long WINDOW_MS = OrderExpiryWheel.PAYMENT_WINDOW.toMillis();
+
+    @Mock
+    private ExpiredOrderReclaimer reclaimer;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    private OrderExpiryWheel wheel;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        wheel = new OrderExpiryWheel(reclaimer, orderRepository, true, 1000, 64);
+        when(reclaimer.reclaim(anyCollection())).thenAnswer(invocation -> new HashSet<>(invocation.<Collection<Long>>getArgument(0)));
+        when(reclaimer.getPartitions()).thenReturn(1);
+        when(reclaimer.heldPartitions()).thenReturn(Set.of(0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        wheel.shutdown();
+    }
+
+    @Test
+    void testOrderExpiresOnItsDeadlineTick() {
+        wheel.advanceTo(0);
+        wheel.scheduleAt(1L, 5_500);
+
+        wheel.advanceTo(5_000);
+        verify(reclaimer, never()).reclaim(List.of(1L));
+
+        wheel.advanceTo(6_000);
+        verify(reclaimer, times(1)).reclaim(List.of(1L));
+        assertEquals(0, wheel.size());
+        assertEquals(1L, wheel.stats().get("expired"));
+    }
+
+    @Test
+    void testDeadlineBeyondOneLapWaitsForItsOwnLap() {
+        wheel.advanceTo(0);
+        wheel.scheduleAt(1L, 100_000);
+
+        wheel.advanceTo(37_000);
+        wheel.advanceTo(99_000);
+        verify(reclaimer, never()).reclaim(List.of(1L));
+
+        wheel.advanceTo(100_000);
+        verify(reclaimer, times(1)).reclaim(List.of(1L));
+    }
+
+    @Test
+    void testPaidOrderIsCancelled() {
+        wheel.syncPartitions();
+        Order order = unpaidOrder(1L, LocalDateTime.now());
+        wheel.onOrderChanged(OrderChangedEvent.of(OrderChangedEvent.Kind.CREATED, order));
+        assertEquals(1, wheel.size());
+
+        wheel.onOrderChanged(OrderChangedEvent.of(OrderChangedEvent.Kind.PAID, 1L));
+
+        assertEquals(0, wheel.size());
+        wheel.advanceTo(System.currentTimeMillis() + WINDOW_MS + 1000);
+        verify(reclaimer, never()).reclaim(anyCollection());
+    }
+
+    @Test
+    void testLoadSchedulesUnpaidOrdersAndReleasesOverdueOnes() {
+        LocalDateTime now = LocalDateTime.now();
+        when(orderRepository.findUnpaidOrderTimes(1, Set.of(0))).thenReturn(List.of(
+                new Object[]{1L, now.minusMinutes(30)},
+                new Object[]{2L, now}));
+
+        wheel.load();
+        wheel.advanceTo(now.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() + 1000);
+
+        verify(reclaimer, times(1)).reclaim(List.of(1L));
+        verify(reclaimer, never()).reclaim(List.of(2L));
+        assertEquals(1, wheel.size());
+        verify(reclaimer).refreshLeases();
+    }
+
+    @Test
+    void testOnlyOrdersOfHeldPartitionsAreTracked() {
+        when(reclaimer.getPartitions()).thenReturn(4);
+        when(reclaimer.heldPartitions()).thenReturn(Set.of(1));
+        wheel.syncPartitions();
+
+        for (long id = 1; id <= 8; id++) {
+            wheel.onOrderChanged(OrderChangedEvent.of(OrderChangedEvent.Kind.CREATED, unpaidOrder(id, LocalDateTime.now())));
+        }
+
+        assertEquals(2, wheel.size());
+        assertEquals(1L, wheel.stats().get("partitions"));
+        verify(orderRepository).findUnpaidOrderTimes(4, Set.of(1));
+    }
+
+    @Test
+    void testLeaseChangesDropAndLoadOrders() {
+        LocalDateTime now = LocalDateTime.now();
+        when(reclaimer.getPartitions()).thenReturn(2);
+        when(reclaimer.heldPartitions()).thenReturn(Set.of(0, 1), Set.of(1), Set.of(0, 1));
+        when(orderRepository.findUnpaidOrderTimes(2, Set.of(0, 1))).thenReturn(List.of(
+                new Object[]{2L, now}, new Object[]{3L, now}));
+        when(orderRepository.findUnpaidOrderTimes(2, Set.of(0))).thenReturn(List.<Object[]>of(new Object[]{4L, now}));
+
+        wheel.syncPartitions();
+        assertEquals(2, wheel.size());
+
+        wheel.syncPartitions();
+        assertEquals(1, wheel.size());
+        wheel.onOrderChanged(OrderChangedEvent.of(OrderChangedEvent.Kind.CREATED, unpaidOrder(4L, now)));
+        assertEquals(1, wheel.size());
+
+        wheel.syncPartitions();
+        assertEquals(2, wheel.size());
+        verify(orderRepository).findUnpaidOrderTimes(2, Set.of(0));
+        verify(orderRepository, never()).findUnpaidOrderTimes(2, Set.of(1));
+    }
+
+    @Test
+    void testOrdersDueOnSameTickAreReclaimedTogether() {
+        wheel.advanceTo(0);
+        wheel.scheduleAt(1L, 3_000);
+        wheel.scheduleAt(2L, 3_000);
+        wheel.scheduleAt(3L, 4_000);
+
+        wheel.advanceTo(3_000);
+
+        verify(reclaimer, times(1)).reclaim(argThat(ids -> ids.size() == 2 && ids.containsAll(List.of(1L, 2L))));
+        assertEquals(1, wheel.size());
+        assertEquals(2L, wheel.stats().get("expired"));
+    }
+
+    @Test
+    void testFailedExpiryIsRetriedOnNextTick() {
+        when(reclaimer.reclaim(List.of(1L))).thenThrow(new IllegalStateException("db down")).thenReturn(Set.of(1L));
+        wheel.advanceTo(0);
+        wheel.scheduleAt(1L, 1_000);
+
+        wheel.advanceTo(1_000);
+        assertEquals(1, wheel.size());
+
+        wheel.advanceTo(2_000);
+        verify(reclaimer, times(2)).reclaim(List.of(1L));
+        assertEquals(0, wheel.size());
+        assertEquals(1L, wheel.stats().get("failures"));
+    }
+
+    private static Order unpaidOrder(long id, LocalDateTime createdAt) {
+        Order order = new Order();
+        order.setId(id);
+        order.setStatus(Status.NOT_PAID);
+        order.setLocalDateTime(createdAt);
+        return order;
+    }
+}
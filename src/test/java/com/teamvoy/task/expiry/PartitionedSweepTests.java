@@ -0,0 +1,179 @@
+package com.teamvoy.task.expiry;
+
+import com.teamvoy.task.inventory.InventoryEngine;
+import com.teamvoy.task.repository.OrderJdbcRepository;
+import com.teamvoy.task.repository.SweepLeaseJdbcRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs several nodes, each its own application context, against one shared in-memory database.
+ */
+public class PartitionedSweepTests {
+    private static final String URL = "jdbc:h2:mem:partitioned-sweep;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+    private static final int EXPIRED_ORDERS = 120;
+
+    private JdbcTemplate jdbcTemplate;
+    private final List<AnnotationConfigApplicationContext> nodes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource());
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        jdbcTemplate.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, name VARCHAR(255), amount BIGINT NOT NULL,"
+                + " price DOUBLE NOT NULL, version BIGINT NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE orders (id BIGINT PRIMARY KEY, local_date_time TIMESTAMP, status INT)");
+        jdbcTemplate.execute("CREATE TABLE order_lines (order_id BIGINT, line_no INT, product_id BIGINT NOT NULL,"
+                + " quantity BIGINT NOT NULL, PRIMARY KEY (order_id, line_no))");
+        jdbcTemplate.execute("CREATE TABLE order_views (order_id BIGINT PRIMARY KEY)");
+        jdbcTemplate.execute("CREATE TABLE sweep_leases (partition_no INT PRIMARY KEY, owner VARCHAR(255),"
+                + " lease_until TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE sweep_nodes (node_id VARCHAR(255) PRIMARY KEY, seen_until TIMESTAMP NOT NULL)");
+
+        for (long productId = 1; productId <= 3; productId++) {
+            jdbcTemplate.update("INSERT INTO products (id, name, amount, price, version) VALUES (?, ?, 0, 1, 0)",
+                    productId, "Product " + productId);
+        }
+        Timestamp expired = Timestamp.valueOf(LocalDateTime.now().minusMinutes(30));
+        Timestamp fresh = Timestamp.valueOf(LocalDateTime.now());
+        for (long id = 1; id <= EXPIRED_ORDERS + 10; id++) {
+            boolean stale = id <= EXPIRED_ORDERS || id > EXPIRED_ORDERS + 5;
+            boolean paid = id > EXPIRED_ORDERS + 5;
+            jdbcTemplate.update("INSERT INTO orders (id, local_date_time, status) VALUES (?, ?, ?)",
+                    id, stale ? expired : fresh, paid ? 0 : 1);
+            jdbcTemplate.update("INSERT INTO order_lines (order_id, line_no, product_id, quantity) VALUES (?, 1, ?, 2)",
+                    id, id % 3 + 1);
+            jdbcTemplate.update("INSERT INTO order_views (order_id) VALUES (?)", id);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodes.forEach(AnnotationConfigApplicationContext::close);
+    }
+
+    @Test
+    void testNodesSweepConcurrentlyWithoutDoubleReclaiming() throws Exception {
+        ExpiredOrderReclaimer first = startNode("node-a").getBean(ExpiredOrderReclaimer.class);
+        ExpiredOrderReclaimer second = startNode("node-b").getBean(ExpiredOrderReclaimer.class);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+
+        Future<Integer> firstSwept = pool.submit(() -> {
+            start.await();
+            return first.reclaimExpired();
+        });
+        Future<Integer> secondSwept = pool.submit(() -> {
+            start.await();
+            return second.reclaimExpired();
+        });
+        start.countDown();
+        int reclaimed = firstSwept.get(30, TimeUnit.SECONDS) + secondSwept.get(30, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertEquals(EXPIRED_ORDERS, reclaimed);
+        assertEquals(10, count("orders"));
+        assertEquals(10, count("order_lines"));
+        assertEquals(10, count("order_views"));
+        // Every product had 40 expired orders of 2 items each; anything else means a double restock.
+        assertEquals(List.of(80L, 80L, 80L),
+                jdbcTemplate.queryForList("SELECT amount FROM products ORDER BY id", Long.class));
+        assertEquals(0, count("sweep_leases WHERE owner IS NOT NULL"));
+    }
+
+    @Test
+    void testPartitionLeasedByAnotherNodeIsLeftAlone() {
+        ExpiredOrderReclaimer sweeper = startNode("node-a").getBean(ExpiredOrderReclaimer.class);
+        SweepLeaseJdbcRepository leases = startNode("node-b").getBean(SweepLeaseJdbcRepository.class);
+        leases.ensurePartitions(4);
+        LocalDateTime now = LocalDateTime.now();
+        assertTrue(leases.tryAcquire(1, "node-b", now, now.plusMinutes(5)));
+
+        assertEquals(EXPIRED_ORDERS * 3 / 4, sweeper.reclaimExpired());
+
+        assertEquals(List.of(1),
+                jdbcTemplate.queryForList("SELECT DISTINCT MOD(id, 4) FROM orders WHERE id <= ?", Integer.class, EXPIRED_ORDERS));
+    }
+
+    @Test
+    void testNodesSplitThePartitionsTheyHold() {
+        ExpiredOrderReclaimer first = startNode("node-a").getBean(ExpiredOrderReclaimer.class);
+        ExpiredOrderReclaimer second = startNode("node-b").getBean(ExpiredOrderReclaimer.class);
+
+        assertEquals(4, first.refreshLeases().size());
+        assertEquals(0, second.refreshLeases().size());
+        Set<Integer> firstHeld = first.refreshLeases();
+        Set<Integer> secondHeld = second.refreshLeases();
+
+        assertEquals(2, firstHeld.size());
+        assertEquals(2, secondHeld.size());
+        assertTrue(Collections.disjoint(firstHeld, secondHeld));
+
+        first.reclaimExpired();
+        assertEquals(firstHeld, Set.copyOf(jdbcTemplate.queryForList(
+                "SELECT partition_no FROM sweep_leases WHERE owner = 'node-a'", Integer.class)));
+        assertEquals(4, count("sweep_leases WHERE owner IS NOT NULL"));
+    }
+
+    @Test
+    void testLeaseIsExclusiveUntilItExpires() {
+        SweepLeaseJdbcRepository leases = startNode("node-a").getBean(SweepLeaseJdbcRepository.class);
+        leases.ensurePartitions(1);
+        leases.ensurePartitions(1);
+        LocalDateTime now = LocalDateTime.now();
+
+        assertTrue(leases.tryAcquire(0, "node-a", now, now.plusMinutes(1)));
+        assertFalse(leases.tryAcquire(0, "node-b", now, now.plusMinutes(1)));
+        assertTrue(leases.renew(0, "node-a", now.plusMinutes(2)));
+        assertFalse(leases.renew(0, "node-b", now.plusMinutes(2)));
+        assertTrue(leases.tryAcquire(0, "node-b", now.plusMinutes(3), now.plusMinutes(4)));
+        assertEquals(1, count("sweep_leases"));
+    }
+
+    private AnnotationConfigApplicationContext startNode(String nodeId) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("node", Map.of(
+                "teamvoy.node-id", nodeId,
+                "teamvoy.order-expiry.partitions", "4",
+                "teamvoy.order-expiry.chunk-size", "7")));
+        DataSource dataSource = dataSource();
+        context.registerBean(JdbcTemplate.class, () -> new JdbcTemplate(dataSource));
+        context.registerBean(TransactionTemplate.class,
+                () -> new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+        context.registerBean(OrderJdbcRepository.class);
+        context.registerBean(SweepLeaseJdbcRepository.class);
+        context.registerBean(InventoryEngine.class, () -> mock(InventoryEngine.class));
+        context.registerBean(ExpiredOrderReclaimer.class);
+        context.refresh();
+        nodes.add(context);
+        return context;
+    }
+
+    private int count(String from) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + from, Integer.class);
+    }
+
+    private static DataSource dataSource() {
+        return new DriverManagerDataSource(URL, "sa", "sa");
+    }
+}
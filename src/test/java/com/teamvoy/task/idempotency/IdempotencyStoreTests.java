@@ -0,0 +1,134 @@
+package com.teamvoy.task.idempotency;
+
+import com.teamvoy.task.exception.IdempotencyKeyConflictException;
+import com.teamvoy.task.exception.NotEnoughAmountException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdempotencyStoreTests {
+
+    @Test
+    void testRepeatedKeyReturnsFirstResult() {
+        IdempotencyStore store = new IdempotencyStore(10, 60, 1000);
+        AtomicInteger runs = new AtomicInteger();
+
+        String first = store.execute("scope", "key", "body", () -> "result-" + runs.incrementAndGet());
+        String second = store.execute("scope", "key", "body", () -> "result-" + runs.incrementAndGet());
+
+        assertEquals("result-1", first);
+        assertEquals("result-1", second);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void testMissingKeyAlwaysRuns() {
+        IdempotencyStore store = new IdempotencyStore(10, 60, 1000);
+        AtomicInteger runs = new AtomicInteger();
+
+        store.execute("scope", null, "body", runs::incrementAndGet);
+        store.execute("scope", " ", "body", runs::incrementAndGet);
+
+        assertEquals(2, runs.get());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void testSameKeyWithDifferentBodyIsRejected() {
+        IdempotencyStore store = new IdempotencyStore(10, 60, 1000);
+        store.execute("scope", "key", "body", () -> "ok");
+
+        assertThrows(IdempotencyKeyConflictException.class, () -> store.execute("scope", "key", "other", () -> "ok"));
+    }
+
+    @Test
+    void testFailureIsForgotten() {
+        IdempotencyStore store = new IdempotencyStore(10, 60, 1000);
+
+        assertThrows(NotEnoughAmountException.class, () -> store.execute("scope", "key", "body", () -> {
+            throw new NotEnoughAmountException("Insufficient stock");
+        }));
+
+        assertEquals("ok", store.execute("scope", "key", "body", () -> "ok"));
+    }
+
+    @Test
+    void testErrorIsForgottenToo() {
+        IdempotencyStore store = new IdempotencyStore(10, 60, 1000);
+
+        assertThrows(StackOverflowError.class, () -> store.execute("scope", "key", "body", () -> {
+            throw new StackOverflowError();
+        }));
+
+        assertEquals(0, store.size());
+        assertEquals("ok", store.execute("scope", "key", "body", () -> "ok"));
+    }
+
+    @Test
+    void testInFlightEntryExpiresWithTtl() throws Exception {
+        IdempotencyStore store = new IdempotencyStore(10, 0, 5000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> stuck = CompletableFuture.supplyAsync(() -> store.execute("scope", "key", "body", () -> {
+            started.countDown();
+            await(release);
+            return "stuck";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertEquals("retry", store.execute("scope", "key", "body", () -> "retry"));
+
+        release.countDown();
+        assertEquals("stuck", stuck.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testConcurrentDuplicateWaitsForFirst() throws Exception {
+        IdempotencyStore store = new IdempotencyStore(10, 60, 5000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> store.execute("scope", "key", "body", () -> {
+            runs.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "first";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> duplicate = CompletableFuture.supplyAsync(() -> store.execute("scope", "key", "body", () -> {
+            runs.incrementAndGet();
+            return "duplicate";
+        }));
+        release.countDown();
+
+        assertEquals("first", first.get(5, TimeUnit.SECONDS));
+        assertEquals("first", duplicate.get(5, TimeUnit.SECONDS));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void testCompletedEntriesAreBounded() {
+        IdempotencyStore store = new IdempotencyStore(2, 60, 1000);
+
+        for (int i = 0; i < 5; i++) {
+            store.execute("scope", "key-" + i, "body", () -> "ok");
+        }
+
+        assertEquals(2, store.size());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.teamvoy.task.intake;
+
+import com.teamvoy.task.dto.order.OrderRequest;
+import com.teamvoy.task.exception.NotEnoughAmountException;
+import com.teamvoy.task.exception.OrderIntakeFullException;
+import com.teamvoy.task.exception.OrderIntakeTimeoutException;
+import com.teamvoy.task.idempotency.IdempotencyStore;
+import com.teamvoy.task.model.Order;
+import com.teamvoy.task.model.User;
+import com.teamvoy.task.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class OrderIntakeQueueTests {
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private OrderIntakeQueue intake;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        intake = new OrderIntakeQueue(orderService, transactionTemplate, true, 10, 50, 100, 5000);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        intake.shutdown();
+    }
+
+    @Test
+    void testOrdersShareOneTransaction() throws Exception {
+        User user = new User();
+        List<OrderRequest> first = List.of(new OrderRequest(1L, 1));
+        List<OrderRequest> second = List.of(new OrderRequest(2L, 1));
+        Order firstOrder = new Order();
+        Order secondOrder = new Order();
+        when(orderService.placeOrder(first, user)).thenReturn(firstOrder);
+        when(orderService.placeOrder(second, user)).thenReturn(secondOrder);
+
+        intake.commit(List.of(new OrderIntakeQueue.PendingOrder(first, user), new OrderIntakeQueue.PendingOrder(second, user)));
+
+        verify(transactionTemplate, times(1)).execute(any());
+        verify(orderService, times(2)).placeOrder(anyList(), eq(user));
+    }
+
+    @Test
+    void testShortfallFailsOnlyThatOrder() {
+        User user = new User();
+        List<OrderRequest> good = List.of(new OrderRequest(1L, 1));
+        List<OrderRequest> bad = List.of(new OrderRequest(2L, 99));
+        Order placed = new Order();
+        when(orderService.placeOrder(good, user)).thenReturn(placed);
+        when(orderService.placeOrder(bad, user)).thenThrow(new NotEnoughAmountException("Insufficient stock"));
+        intake.start();
+
+        CompletableFuture<Order> goodFuture = intake.submit(good, user);
+        CompletableFuture<Order> badFuture = intake.submit(bad, user);
+
+        assertSame(placed, goodFuture.join());
+        ExecutionException e = assertThrows(ExecutionException.class, badFuture::get);
+        assertTrue(e.getCause() instanceof NotEnoughAmountException);
+    }
+
+    @Test
+    void testFailedCommitFailsWholeGroup() {
+        User user = new User();
+        List<OrderRequest> request = List.of(new OrderRequest(1L, 1));
+        when(orderService.placeOrder(request, user)).thenReturn(new Order());
+        when(transactionTemplate.execute(any())).thenThrow(new TransactionSystemException("commit failed"));
+        intake.start();
+
+        assertThrows(TransactionSystemException.class, () -> intake.place(request, user));
+    }
+
+    @Test
+    void testQueuedOrderIsCancelledWhenTheCallerTimesOut() throws Exception {
+        OrderIntakeQueue slow = new OrderIntakeQueue(orderService, transactionTemplate, true, 1, 0, 100, 50);
+        User user = new User();
+        List<OrderRequest> blocking = List.of(new OrderRequest(1L, 1));
+        List<OrderRequest> queued = List.of(new OrderRequest(2L, 1));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderService.placeOrder(blocking, user)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new Order();
+        });
+        slow.start();
+
+        try {
+            CompletableFuture<Order> first = slow.submit(blocking, user);
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            assertThrows(OrderIntakeTimeoutException.class, () -> slow.place(queued, user));
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            slow.shutdown();
+        }
+
+        verify(orderService, never()).placeOrder(queued, user);
+    }
+
+    @Test
+    void testOrderAlreadyBeingCommittedIsAwaited() throws InterruptedException {
+        OrderIntakeQueue slow = new OrderIntakeQueue(orderService, transactionTemplate, true, 1, 0, 100, 50);
+        User user = new User();
+        List<OrderRequest> request = List.of(new OrderRequest(1L, 1));
+        Order placed = new Order();
+        when(orderService.placeOrder(request, user)).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return placed;
+        });
+        slow.start();
+
+        try {
+            assertSame(placed, slow.place(request, user));
+        } finally {
+            slow.shutdown();
+        }
+    }
+
+    @Test
+    void testRetryAfterTimeoutPlacesTheOrderOnce() throws Exception {
+        OrderIntakeQueue slow = new OrderIntakeQueue(orderService, transactionTemplate, true, 1, 0, 100, 200);
+        IdempotencyStore store = new IdempotencyStore(10, 60, 1000);
+        User user = new User();
+        List<OrderRequest> blocking = List.of(new OrderRequest(1L, 1));
+        List<OrderRequest> retried = List.of(new OrderRequest(2L, 1));
+        Order placed = new Order();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderService.placeOrder(blocking, user)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new Order();
+        });
+        when(orderService.placeOrder(retried, user)).thenReturn(placed);
+        slow.start();
+
+        try {
+            CompletableFuture<Order> first = slow.submit(blocking, user);
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            assertThrows(OrderIntakeTimeoutException.class,
+                    () -> store.execute("create-order", "key", "body", () -> slow.place(retried, user)));
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+
+            assertSame(placed, store.execute("create-order", "key", "body", () -> slow.place(retried, user)));
+            assertSame(placed, store.execute("create-order", "key", "body", () -> slow.place(retried, user)));
+        } finally {
+            release.countDown();
+            slow.shutdown();
+        }
+
+        verify(orderService, times(1)).placeOrder(retried, user);
+    }
+
+    @Test
+    void testRejectsWhenNotRunning() {
+        assertThrows(OrderIntakeFullException.class, () -> intake.submit(List.of(), new User()));
+    }
+}
@@ -0,0 +1,172 @@
+package com.teamvoy.task.inventory;
+
+import com.teamvoy.task.event.ProductChangedEvent;
+import com.teamvoy.task.model.Product;
+import com.teamvoy.task.repository.ProductJdbcRepository;
+import com.teamvoy.task.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class InventoryEngineTests {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductJdbcRepository productJdbcRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private InventoryEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        engine = new InventoryEngine(productRepository, productJdbcRepository, eventPublisher, true, 60_000);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(new Product(1L, "Laptop", 100, 1000)));
+    }
+
+    @Test
+    void testReserveAndRelease() {
+        assertTrue(engine.tryReserve(1L, 30));
+        assertFalse(engine.tryReserve(1L, 71));
+        engine.release(1L, 10);
+
+        assertEquals(80, engine.available(1L));
+        assertEquals(-20, engine.pendingDelta(1L));
+        verify(productRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void testConcurrentReservationsNeverOversell() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger granted = new AtomicInteger();
+        engine.available(1L);
+        for (int i = 0; i < 400; i++) {
+            pool.submit(() -> {
+                start.await();
+                if (engine.tryReserve(1L, 1)) {
+                    granted.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(100, granted.get());
+        assertEquals(0, engine.available(1L));
+    }
+
+    @Test
+    void testFlushCoalescesDeltasIntoOneBatch() {
+        engine.tryReserve(1L, 5);
+        engine.tryReserve(1L, 7);
+        engine.release(1L, 2);
+
+        engine.flush();
+
+        verify(productJdbcRepository).addAmounts(Map.of(1L, -10L));
+        verify(eventPublisher).publishEvent(any(ProductChangedEvent.class));
+        assertEquals(0, engine.pendingDelta(1L));
+    }
+
+    @Test
+    void testFailedFlushKeepsDeltaForRetry() {
+        engine.tryReserve(1L, 5);
+        when(productJdbcRepository.addAmounts(anyMap())).thenThrow(new IllegalStateException("db down"));
+
+        assertThrows(IllegalStateException.class, engine::flush);
+        assertEquals(-5, engine.pendingDelta(1L));
+    }
+
+    @Test
+    void testShutdownDrainsPendingChanges() throws Exception {
+        engine.start();
+        engine.tryReserve(1L, 3);
+
+        engine.shutdown();
+
+        verify(productJdbcRepository).addAmounts(Map.of(1L, -3L));
+        assertEquals(0, engine.pendingDelta(1L));
+    }
+
+    @Test
+    void testSavedProductResetsCounterOnTopOfPendingDelta() {
+        engine.tryReserve(1L, 4);
+
+        engine.onProductChanged(ProductChangedEvent.saved(new Product(1L, "Laptop", 50, 1000)));
+
+        assertEquals(46, engine.available(1L));
+    }
+
+    @Test
+    void testRollbackGivesBackWhatTheTransactionReserved() {
+        TransactionTemplate transaction = new TransactionTemplate(new NoOpTransactionManager());
+
+        transaction.execute(status -> {
+            assertTrue(engine.tryReserve(1L, 30));
+            engine.release(1L, 5);
+            status.setRollbackOnly();
+            return null;
+        });
+
+        assertEquals(100, engine.available(1L));
+        assertEquals(0, engine.pendingDelta(1L));
+    }
+
+    @Test
+    void testFailingTransactionGivesBackItsReservations() {
+        TransactionTemplate transaction = new TransactionTemplate(new NoOpTransactionManager());
+
+        assertThrows(IllegalStateException.class, () -> transaction.execute(status -> {
+            engine.tryReserve(1L, 30);
+            throw new IllegalStateException("save failed");
+        }));
+        transaction.execute(status -> engine.tryReserve(1L, 10));
+
+        assertEquals(90, engine.available(1L));
+        assertEquals(-10, engine.pendingDelta(1L));
+    }
+
+    // Runs the transaction lifecycle, and so its synchronizations, without a resource behind it.
+    private static class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.teamvoy.task.journal;
+
+import com.teamvoy.task.event.OrderChangedEvent;
+import com.teamvoy.task.model.Order;
+import com.teamvoy.task.model.Status;
+import com.teamvoy.task.model.User;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Append throughput of {@link OrderJournal}. Not part of the test run; start it with {@link #main}.
+ * {@code append} measures the mapped write alone, {@code appendDurably} also waits for the group fsync
+ * that covers the record, so with several threads it shows how many appends share one fsync.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class OrderJournalBenchmark {
+    @Param({"1", "10"})
+    public long fsyncIntervalMs;
+
+    private Path directory;
+    private OrderJournal journal;
+    private Order order;
+    private final AtomicLong ids = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void open() throws IOException {
+        directory = Files.createTempDirectory("order-journal-benchmark");
+        journal = new OrderJournal(true, directory.toString(), 64 * 1024 * 1024, fsyncIntervalMs);
+        journal.start();
+        User user = new User();
+        user.setId(42L);
+        order = new Order();
+        order.setId(1L);
+        order.setUser(user);
+        order.setStatus(Status.NOT_PAID);
+        order.setSum(199999);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws Exception {
+        journal.shutdown();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long append() {
+        return journal.append(OrderChangedEvent.Kind.CREATED, ids.incrementAndGet(), order);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean appendDurably() throws InterruptedException {
+        long offset = journal.append(OrderChangedEvent.Kind.PAID, ids.incrementAndGet(), order);
+        return journal.awaitDurable(offset, 1_000);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(OrderJournalBenchmark.class.getSimpleName()).build()).run();
+    }
+}
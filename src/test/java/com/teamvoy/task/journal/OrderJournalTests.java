@@ -0,0 +1,167 @@
+package com.teamvoy.task.journal;
+
+import com.teamvoy.task.event.OrderChangedEvent;
+import com.teamvoy.task.model.Order;
+import com.teamvoy.task.model.Status;
+import com.teamvoy.task.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderJournalTests {
+    private static final int SEGMENT_BYTES = 1024;
+
+    @TempDir
+    Path directory;
+
+    private final List<OrderJournal> opened = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (OrderJournal journal : opened) {
+            journal.shutdown();
+        }
+    }
+
+    @Test
+    void testEntriesRoundTrip() throws Exception {
+        OrderJournal journal = open();
+
+        long created = journal.append(OrderChangedEvent.Kind.CREATED, 5L, order(5L, 7L, 12050));
+        journal.append(OrderChangedEvent.Kind.EXPIRED, 6L, null);
+
+        List<JournalEntry> entries = journal.read(0, 10);
+        assertEquals(2, entries.size());
+        JournalEntry first = entries.get(0);
+        assertEquals(created, first.getOffset());
+        assertEquals(OrderChangedEvent.Kind.CREATED, first.getKind());
+        assertEquals(5L, first.getOrderId());
+        assertEquals(7L, first.getUserId());
+        assertEquals(Status.NOT_PAID, first.getStatus());
+        assertEquals(12050L, first.getSum());
+        assertTrue(first.getTimestamp() > 0);
+        JournalEntry second = entries.get(1);
+        assertEquals(first.getNextOffset(), second.getOffset());
+        assertEquals(OrderChangedEvent.Kind.EXPIRED, second.getKind());
+        assertNull(second.getUserId());
+        assertNull(second.getStatus());
+        assertNull(second.getSum());
+    }
+
+    @Test
+    void testReplayFromOffsetAcrossSegments() throws Exception {
+        OrderJournal journal = open();
+        List<Long> offsets = new ArrayList<>();
+        for (long id = 0; id < 500; id++) {
+            offsets.add(journal.append(OrderChangedEvent.Kind.CREATED, id, order(id, 1L, id)));
+        }
+        assertTrue(segmentFiles().size() > 5);
+
+        assertEquals(500, journal.read(0, 1000).size());
+        List<Long> replayed = new ArrayList<>();
+        long next = journal.replay(offsets.get(300), 150, entry -> replayed.add(entry.getOrderId()));
+        assertEquals(150, replayed.size());
+        assertEquals(300L, replayed.get(0));
+        assertEquals(449L, replayed.get(149));
+        assertEquals(offsets.get(450), next);
+        assertEquals(journal.endOffset(), journal.replay(journal.endOffset(), 10, entry -> fail()));
+        assertThrows(IllegalArgumentException.class, () -> journal.read(offsets.get(1) + 1, 1));
+    }
+
+    @Test
+    void testGroupFsyncMakesAppendsDurable() throws Exception {
+        OrderJournal journal = open();
+        long last = 0;
+        for (long id = 0; id < 100; id++) {
+            last = journal.append(OrderChangedEvent.Kind.PAID, id, null);
+        }
+
+        assertTrue(journal.awaitDurable(last, 5_000));
+        assertEquals(journal.endOffset(), journal.stats().get("durableOffset"));
+        assertTrue(journal.stats().get("fsyncs") < 100);
+    }
+
+    @Test
+    void testReopenContinuesAfterTornTail() throws Exception {
+        OrderJournal journal = open();
+        for (long id = 0; id < 50; id++) {
+            journal.append(OrderChangedEvent.Kind.CREATED, id, null);
+        }
+        long end = journal.endOffset();
+        journal.shutdown();
+        opened.remove(journal);
+        Path last = segmentFiles().get(segmentFiles().size() - 1);
+        try (FileChannel channel = FileChannel.open(last, StandardOpenOption.WRITE)) {
+            // A half-written record some way past the end, as a crash between page write-backs can leave.
+            channel.write(ByteBuffer.wrap(new byte[]{5, 0, 0, 0, 1, 2, 3, 4, 9, 9}), end - JournalSegment.baseOffsetOf(last) + 20);
+        }
+
+        OrderJournal reopened = open();
+        assertEquals(end, reopened.endOffset());
+        long offset = reopened.append(OrderChangedEvent.Kind.DELETED, 99L, null);
+
+        assertEquals(end, offset);
+        List<JournalEntry> entries = reopened.read(0, 100);
+        assertEquals(51, entries.size());
+        assertEquals(99L, entries.get(50).getOrderId());
+    }
+
+    @Test
+    void testListenerJournalsOrderEvents() throws Exception {
+        OrderJournal journal = open();
+
+        journal.onOrderChanged(OrderChangedEvent.of(OrderChangedEvent.Kind.PAID, order(3L, 2L, 1000)));
+        journal.onOrderChanged(OrderChangedEvent.of(OrderChangedEvent.Kind.EXPIRED, 4L));
+
+        assertEquals(List.of(3L, 4L),
+                journal.read(0, 10).stream().map(JournalEntry::getOrderId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void testDisabledJournalIgnoresEvents() throws Exception {
+        OrderJournal journal = new OrderJournal(false, directory.toString(), SEGMENT_BYTES, 5);
+        journal.start();
+
+        journal.onOrderChanged(OrderChangedEvent.of(OrderChangedEvent.Kind.EXPIRED, 4L));
+
+        assertTrue(journal.read(0, 10).isEmpty());
+        assertTrue(segmentFiles().isEmpty());
+    }
+
+    private OrderJournal open() throws Exception {
+        OrderJournal journal = new OrderJournal(true, directory.toString(), SEGMENT_BYTES, 5);
+        journal.start();
+        opened.add(journal);
+        return journal;
+    }
+
+    private List<Path> segmentFiles() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted(Comparator.naturalOrder()).collect(Collectors.toList());
+        }
+    }
+
+    private static Order order(long id, long userId, long sum) {
+        User user = new User();
+        user.setId(userId);
+        Order order = new Order();
+        order.setId(id);
+        order.setUser(user);
+        order.setStatus(Status.NOT_PAID);
+        order.setSum(sum);
+        return order;
+    }
+}
@@ -25,7 +25,7 @@ public class UserTests {
         user.setLastName("Doe");
         user.setEmail("john.doe@example.com");
         user.setPassword("Password123");
-        user.setBalance(100.0);
+        user.setBalance(10000);
         user.setRole(role);
         user.setOrders(new ArrayList<>());
 
@@ -35,7 +35,7 @@ public class UserTests {
         assertEquals("Doe", user.getLastName());
         assertEquals("john.doe@example.com", user.getEmail());
         assertEquals("Password123", user.getPassword());
-        assertEquals(100.0, user.getBalance());
+        assertEquals(10000, user.getBalance());
         assertEquals(role, user.getRole());
         assertNotNull(user.getOrders());
         assertTrue(user.getOrders().isEmpty());
@@ -0,0 +1,79 @@
+package com.teamvoy.task.money;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order sums over {@code lines} lines with {@link Money} minor units, plain doubles (what the entities
+ * used before) and {@link BigDecimal}. Not part of the test run; start it with {@link #main}, which adds
+ * the GC profiler so the allocation rate of each variant is reported next to its time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class MoneyBenchmark {
+    @Param({"5", "50"})
+    public int lines;
+
+    private long[] amounts;
+    private long[] minorPrices;
+    private double[] doublePrices;
+    private BigDecimal[] decimalPrices;
+
+    @Setup(Level.Trial)
+    public void prices() {
+        Random random = new Random(42);
+        amounts = new long[lines];
+        minorPrices = new long[lines];
+        doublePrices = new double[lines];
+        decimalPrices = new BigDecimal[lines];
+        for (int i = 0; i < lines; i++) {
+            amounts[i] = 1 + random.nextInt(5);
+            minorPrices[i] = 1 + random.nextInt(5_000_00);
+            doublePrices[i] = minorPrices[i] / 100.0;
+            decimalPrices[i] = Money.toDecimal(minorPrices[i]);
+        }
+    }
+
+    @Benchmark
+    public long sumMinorUnits() {
+        long sum = 0;
+        for (int i = 0; i < lines; i++) {
+            sum = Money.addLine(sum, minorPrices[i], amounts[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double sumDoubles() {
+        double sum = 0;
+        for (int i = 0; i < lines; i++) {
+            sum += doublePrices[i] * amounts[i];
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public BigDecimal sumBigDecimals() {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (int i = 0; i < lines; i++) {
+            sum = sum.add(decimalPrices[i].multiply(BigDecimal.valueOf(amounts[i])));
+        }
+        return sum;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MoneyBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class).build()).run();
+    }
+}
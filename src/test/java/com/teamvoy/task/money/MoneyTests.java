@@ -0,0 +1,57 @@
+package com.teamvoy.task.money;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teamvoy.task.dto.goodsDto.GoodsRequest;
+import com.teamvoy.task.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoneyTests {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void testParseAndFormatAreExact() {
+        assertEquals(10, Money.parse("0.1"));
+        assertEquals(-50, Money.parse(" -0.5 "));
+        assertEquals(199999, Money.parse("1999.99"));
+        assertEquals("1999.99", Money.format(199999));
+        assertEquals("-0.05", Money.format(-5));
+        assertThrows(NumberFormatException.class, () -> Money.parse("12,50"));
+    }
+
+    @Test
+    void testDecimalsBeyondCentsRoundHalfEven() {
+        assertEquals(12, Money.fromDecimal(new BigDecimal("0.125")));
+        assertEquals(14, Money.fromDecimal(new BigDecimal("0.135")));
+        assertEquals(new BigDecimal("0.12"), Money.toDecimal(12));
+    }
+
+    @Test
+    void testArithmeticThrowsOnOverflow() {
+        assertEquals(50, Money.addLine(Money.times(10, 3), 20, 1));
+        assertThrows(ArithmeticException.class, () -> Money.times(Long.MAX_VALUE / 2, 3));
+        assertThrows(ArithmeticException.class, () -> Money.add(Long.MAX_VALUE, 1));
+    }
+
+    @Test
+    void testConverterMapsNullColumnToZero() {
+        MoneyConverter converter = new MoneyConverter();
+
+        assertEquals(new BigDecimal("35000.00"), converter.convertToDatabaseColumn(3500000L));
+        assertEquals(3500000L, converter.convertToEntityAttribute(new BigDecimal("35000")));
+        assertEquals(0L, converter.convertToEntityAttribute(null));
+    }
+
+    @Test
+    void testJsonKeepsDecimalAmounts() throws Exception {
+        Product product = new Product(1L, "Pen", 3, Money.parse("2.5"));
+
+        assertTrue(mapper.writeValueAsString(product).contains("\"price\":2.50"));
+        assertEquals(1050, mapper.readValue("{\"name\":\"Pen\",\"amount\":1,\"price\":10.5}", GoodsRequest.class).getPrice());
+        assertEquals(1050, mapper.readValue("{\"name\":\"Pen\",\"amount\":1,\"price\":\"10.50\"}", GoodsRequest.class).getPrice());
+        assertEquals(0, mapper.readValue("{\"name\":\"Pen\",\"amount\":1,\"price\":null}", GoodsRequest.class).getPrice());
+    }
+}
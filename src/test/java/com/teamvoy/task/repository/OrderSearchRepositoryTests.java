@@ -0,0 +1,173 @@
+package com.teamvoy.task.repository;
+
+import com.teamvoy.task.dto.order.OrderSearchQuery;
+import com.teamvoy.task.model.Order;
+import com.teamvoy.task.model.Status;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.teamvoy.task.repository.OrderSearchRepositoryTests$CapturedSql")
+public class OrderSearchRepositoryTests {
+    private static final int ORDERS = 20_000;
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void generateOrders() {
+        Random random = new Random(42);
+        List<Object[]> rows = new ArrayList<>(ORDERS);
+        for (int i = 0; i < ORDERS; i++) {
+            rows.add(new Object[]{Timestamp.valueOf(START.plusMinutes(15L * i)), 1 + random.nextInt(3),
+                    (double) random.nextInt(500) * 10, random.nextInt(2)});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO orders (id, local_date_time, user_id, sum, status, version)"
+                        + " VALUES (nextval('order_sequence'), ?, ?, ?, ?, 0)", rows);
+    }
+
+    @Test
+    void testFilteredPagesMatchBruteForce() {
+        LocalDateTime from = START.plusDays(30);
+        LocalDateTime to = START.plusDays(60);
+        List<Long> expected = jdbcTemplate.queryForList(
+                "SELECT id FROM orders WHERE user_id = 2 AND status = ? AND local_date_time >= ? AND local_date_time < ?"
+                        + " AND sum >= 100 AND sum <= 3000 ORDER BY sum DESC, id DESC",
+                Long.class, Status.NOT_PAID.ordinal(), Timestamp.valueOf(from), Timestamp.valueOf(to));
+        assertTrue(expected.size() > 100);
+
+        OrderSearchQuery query = new OrderSearchQuery();
+        query.setUserId(2L);
+        query.setStatus(Status.NOT_PAID);
+        query.setFrom(from);
+        query.setTo(to);
+        query.setMinSum(new BigDecimal("100"));
+        query.setMaxSum(new BigDecimal("3000"));
+        query.setSort("-sum");
+        List<Long> found = new ArrayList<>();
+        List<Order> page;
+        do {
+            page = orderRepository.search(query, 50);
+            page.forEach(order -> found.add(order.getId()));
+            if (!page.isEmpty()) {
+                query.setCursor(query.cursorAfter(page.get(page.size() - 1)));
+            }
+        } while (page.size() == 50);
+
+        assertEquals(expected, found);
+    }
+
+    @Test
+    void testDateCursorWalksInOrder() {
+        OrderSearchQuery query = new OrderSearchQuery();
+        query.setUserId(1L);
+        List<Order> first = orderRepository.search(query, 20);
+        query.setCursor(query.cursorAfter(first.get(first.size() - 1)));
+        List<Order> second = orderRepository.search(query, 20);
+
+        assertEquals(20, second.size());
+        assertTrue(second.get(0).getLocalDateTime().isAfter(first.get(first.size() - 1).getLocalDateTime()));
+        assertTrue(second.stream().allMatch(order -> order.getUser().getId() == 1L));
+    }
+
+    // The plans are taken from the SQL the Criteria query actually produced, so a change to its predicates or
+    // ORDER BY shows up here.
+    @Test
+    void testQueryPlansUseCompositeIndexes() {
+        OrderSearchQuery byUser = new OrderSearchQuery();
+        byUser.setUserId(2L);
+        byUser.setStatus(Status.NOT_PAID);
+        byUser.setFrom(START.plusDays(10));
+        byUser.setTo(START.plusDays(11));
+        OrderSearchQuery byStatus = new OrderSearchQuery();
+        byStatus.setStatus(Status.NOT_PAID);
+        byStatus.setFrom(START.plusDays(10));
+        byStatus.setTo(START.plusDays(11));
+
+        String userPlan = explainSearch(byUser);
+        String statusPlan = explainSearch(byStatus);
+
+        assertTrue(userPlan.contains("IDX_ORDERS_USER_STATUS_CREATED"), userPlan);
+        assertTrue(statusPlan.contains("IDX_ORDERS_STATUS_CREATED"), statusPlan);
+    }
+
+    @Test
+    void testSumSortedPlanFiltersThroughTheIndex() {
+        OrderSearchQuery query = new OrderSearchQuery();
+        query.setUserId(2L);
+        query.setStatus(Status.NOT_PAID);
+        query.setMinSum(new BigDecimal("100"));
+        query.setSort("-sum");
+
+        String plan = explainSearch(query);
+
+        assertTrue(plan.contains("IDX_ORDERS_USER_STATUS_CREATED"), plan);
+        assertFalse(plan.contains("TABLESCAN"), plan);
+    }
+
+    @Test
+    void testCursorPlansKeepUsingTheIndex() {
+        OrderSearchQuery byDate = new OrderSearchQuery();
+        byDate.setUserId(1L);
+        byDate.setStatus(Status.PAID);
+        byDate.setCursor(byDate.cursorAfter(orderRepository.search(byDate, 20).get(19)));
+        OrderSearchQuery bySum = new OrderSearchQuery();
+        bySum.setStatus(Status.PAID);
+        bySum.setFrom(START.plusDays(10));
+        bySum.setSort("sum");
+        bySum.setCursor("1000:1");
+
+        String datePlan = explainSearch(byDate);
+        String sumPlan = explainSearch(bySum);
+
+        assertTrue(datePlan.contains("IDX_ORDERS_USER_STATUS_CREATED"), datePlan);
+        assertTrue(sumPlan.contains("IDX_ORDERS_STATUS_CREATED"), sumPlan);
+        assertFalse(datePlan.contains("TABLESCAN") || sumPlan.contains("TABLESCAN"), datePlan + "\n" + sumPlan);
+    }
+
+    // H2 plans a prepared statement before any value is bound, so the parameters can all be left NULL.
+    private String explainSearch(OrderSearchQuery query) {
+        CapturedSql.STATEMENTS.clear();
+        orderRepository.searchIds(query, 50);
+        String sql = CapturedSql.STATEMENTS.stream()
+                .filter(statement -> statement.toLowerCase().contains("from orders"))
+                .reduce((first, last) -> last)
+                .orElseThrow(() -> new AssertionError("No search statement was captured"));
+        return explain(sql, new Object[(int) sql.chars().filter(c -> c == '?').count()]);
+    }
+
+    private String explain(String sql, Object... args) {
+        return jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, args).stream()
+                .collect(Collectors.joining("\n")).toUpperCase();
+    }
+
+    public static class CapturedSql implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
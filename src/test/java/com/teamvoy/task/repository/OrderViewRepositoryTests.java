@@ -0,0 +1,172 @@
+package com.teamvoy.task.repository;
+
+import com.teamvoy.task.dto.order.OrderRequest;
+import com.teamvoy.task.dto.order.OrderResponse;
+import com.teamvoy.task.inventory.InventoryEngine;
+import com.teamvoy.task.model.Order;
+import com.teamvoy.task.model.OrderView;
+import com.teamvoy.task.model.Status;
+import com.teamvoy.task.model.User;
+import com.teamvoy.task.money.Money;
+import com.teamvoy.task.service.OrderService;
+import com.teamvoy.task.service.UserService;
+import com.teamvoy.task.service.impl.OrderServiceImpl;
+import com.teamvoy.task.service.impl.UserServiceImpl;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The view and payment statements are bulk updates: the entity writes queued before them must reach the
+// database first, and the entities loaded around them must stay attached.
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({UserServiceImpl.class, BCryptPasswordEncoder.class, OrderServiceImpl.class, ProductJdbcRepository.class,
+        SalesAggregateJdbcRepository.class, InventoryEngine.class})
+public class OrderViewRepositoryTests {
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderViewRepository orderViewRepository;
+
+    @Autowired
+    private OrderedProductRepository orderedProductRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void testUserUpdateIsKeptWhenViewsAreRefreshed() {
+        User user = userRepository.findById(2L).orElseThrow();
+        entityManager.detach(user);
+        user.setFirstName("Nicholas");
+        user.setPassword("Secret1");
+
+        userService.update(user);
+        entityManager.flush();
+        entityManager.clear();
+
+        User reloaded = userRepository.findById(2L).orElseThrow();
+        assertEquals("Nicholas", reloaded.getFirstName());
+        assertNotEquals("Secret1", reloaded.getPassword());
+    }
+
+    @Test
+    void testDeletedOrderIsGoneTogetherWithItsView() {
+        Order order = new Order();
+        order.setUser(userRepository.findById(2L).orElseThrow());
+        order.setStatus(Status.NOT_PAID);
+        order.setLocalDateTime(LocalDateTime.now());
+        order.setOrderedProducts(new ArrayList<>());
+        long id = orderService.create(order).getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        orderService.delete(id);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertFalse(orderRepository.existsById(id));
+        assertFalse(orderViewRepository.existsById(id));
+    }
+
+    @Test
+    void testEveryViewWriteMovesItsVersion() {
+        User user = userRepository.findById(2L).orElseThrow();
+        long id = orderService.placeOrder(List.of(new OrderRequest(1L, 1)), user).getId();
+        entityManager.flush();
+        entityManager.clear();
+        long created = orderViewRepository.findById(id).orElseThrow().getVersion();
+
+        orderService.prepareOrderForUpdate(id, List.of(new OrderRequest(1L, 2)));
+        entityManager.flush();
+        entityManager.clear();
+        long updated = orderViewRepository.findById(id).orElseThrow().getVersion();
+        orderViewRepository.markPaid(id);
+
+        assertTrue(updated > created);
+        assertTrue(orderViewRepository.findById(id).orElseThrow().getVersion() > updated);
+    }
+
+    @Test
+    void testDeletedOrderTakesItsLinesAlong() {
+        User user = userRepository.findById(2L).orElseThrow();
+        long id = orderService.placeOrder(List.of(new OrderRequest(1L, 1), new OrderRequest(2L, 2)), user).getId();
+        entityManager.flush();
+        entityManager.clear();
+        assertEquals(2, orderedProductRepository.count());
+
+        orderService.delete(id);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertFalse(orderRepository.existsById(id));
+        assertEquals(0, orderedProductRepository.count());
+    }
+
+    @Test
+    void testStreamingOrdersForExportIsOneQuery() {
+        User user = userRepository.findById(2L).orElseThrow();
+        for (int i = 0; i < 5; i++) {
+            orderService.placeOrder(List.of(new OrderRequest(1L, 1), new OrderRequest(2L, 1)), user);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<OrderResponse> responses;
+        try (Stream<OrderView> views = orderViewRepository.streamAll()) {
+            responses = views.map(OrderResponse::new).collect(Collectors.toList());
+        }
+
+        assertEquals(5, responses.size());
+        assertTrue(responses.stream().allMatch(response -> response.getGoods().size() == 2));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testPayingABatchKeepsTheOrdersAttached() {
+        User user = userRepository.findById(2L).orElseThrow();
+        long first = orderService.placeOrder(List.of(new OrderRequest(1L, 1)), user).getId();
+        long second = orderService.placeOrder(List.of(new OrderRequest(2L, 1)), user).getId();
+        userRepository.credit(2L, Money.ofMajor(100_000));
+        entityManager.flush();
+        entityManager.clear();
+        List<Order> orders = orderRepository.findAllById(List.of(first, second));
+
+        orderService.payOrders(2L, List.of(first, second));
+
+        assertTrue(orders.stream().allMatch(order -> entityManager.getEntityManager().contains(order)));
+        assertTrue(orders.stream().allMatch(order -> order.getStatus() == Status.PAID));
+        orders.get(1).setLocalDateTime(LocalDateTime.of(2026, 1, 1, 0, 0));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(LocalDateTime.of(2026, 1, 1, 0, 0), orderRepository.findById(second).orElseThrow().getLocalDateTime());
+        assertEquals(Status.PAID, orderViewRepository.findById(first).orElseThrow().getStatus());
+        assertEquals(Money.ofMajor(100_000 + 2000 - 35_000 - 45_000), userRepository.findById(2L).orElseThrow().getBalance());
+    }
+}
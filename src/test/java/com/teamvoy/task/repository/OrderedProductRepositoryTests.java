@@ -0,0 +1,88 @@
+package com.teamvoy.task.repository;
+
+import com.teamvoy.task.model.Order;
+import com.teamvoy.task.model.OrderedProduct;
+import com.teamvoy.task.model.Status;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class OrderedProductRepositoryTests {
+    private static final int ORDERS = 30;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderedProductRepository orderedProductRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void testOrdersWithTheSameProductKeepTheirOwnLines() {
+        List<Long> ids = createOrders(2);
+
+        List<Order> orders = orderRepository.findAllById(ids);
+
+        assertEquals(2, orders.size());
+        for (Order order : orders) {
+            assertEquals(List.of(1, 2, 3), order.getOrderedProducts().stream()
+                    .map(line -> line.getId().getLineNo()).collect(Collectors.toList()));
+            assertTrue(order.getOrderedProducts().stream().allMatch(line -> line.getId().getOrderId().equals(order.getId())));
+            assertEquals(List.of(3L, 1L, 2L), order.getOrderedProducts().stream()
+                    .map(OrderedProduct::getProductId).collect(Collectors.toList()));
+        }
+        assertEquals(6, orderedProductRepository.count());
+    }
+
+    @Test
+    void testLoadingOrdersDoesNotQueryLinesPerOrder() {
+        List<Long> ids = createOrders(ORDERS);
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<Order> orders = orderRepository.findAllById(ids);
+
+        assertEquals(ORDERS, orders.size());
+        assertTrue(orders.stream().allMatch(order -> order.getOrderedProducts().size() == 3));
+        // Orders, their users (batched) and all of their lines (one subselect), whatever the number of orders.
+        assertTrue(statistics.getPrepareStatementCount() <= 3, "statements: " + statistics.getPrepareStatementCount());
+    }
+
+    private List<Long> createOrders(int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Order order = new Order();
+            order.setUser(userRepository.getOne(1L + i % 3));
+            order.setStatus(Status.NOT_PAID);
+            order.setLocalDateTime(LocalDateTime.now());
+            orderRepository.save(order);
+            List<OrderedProduct> lines = List.of(line(order, 1, 3L), line(order, 2, 1L), line(order, 3, 2L));
+            orderedProductRepository.insertAll(lines);
+            ids.add(order.getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return ids;
+    }
+
+    private static OrderedProduct line(Order order, int lineNo, long productId) {
+        return new OrderedProduct(new OrderedProduct.Key(order.getId(), lineNo), productId, "Product " + productId, 1, 100);
+    }
+}
@@ -0,0 +1,43 @@
+package com.teamvoy.task.repository;
+
+import com.teamvoy.task.model.Product;
+import com.teamvoy.task.money.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(ProductJdbcRepository.class)
+public class ProductJdbcRepositoryTests {
+    @Autowired
+    private ProductJdbcRepository productJdbcRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void testBatchInsertAndJpaShareTheSequenceWithoutCollisions() {
+        List<Product> imported = new ArrayList<>();
+        for (int i = 0; i < Product.ID_ALLOCATION_SIZE + 10; i++) {
+            imported.add(new Product(null, "Imported " + i, 1, Money.ofMajor(1)));
+        }
+        productJdbcRepository.insertAll(imported);
+        Product saved = productRepository.saveAndFlush(new Product(null, "Saved", 1, Money.ofMajor(1)));
+
+        Set<Long> ids = new HashSet<>();
+        imported.forEach(product -> ids.add(product.getId()));
+        ids.add(saved.getId());
+        assertEquals(imported.size() + 1, ids.size());
+        // The seed rows keep ids 1-3; data.sql restarts the sequence past them.
+        assertTrue(ids.stream().allMatch(id -> id > 3));
+        assertEquals(imported.size() + 4, productRepository.count());
+    }
+}
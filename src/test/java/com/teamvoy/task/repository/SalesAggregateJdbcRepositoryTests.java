@@ -0,0 +1,118 @@
+package com.teamvoy.task.repository;
+
+import com.teamvoy.task.dto.report.SalesTotal;
+import com.teamvoy.task.model.Order;
+import com.teamvoy.task.model.OrderedProduct;
+import com.teamvoy.task.model.Status;
+import com.teamvoy.task.model.User;
+import com.teamvoy.task.money.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(SalesAggregateJdbcRepository.class)
+public class SalesAggregateJdbcRepositoryTests {
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 1);
+
+    @Autowired
+    private SalesAggregateJdbcRepository salesAggregateJdbcRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private int nextLineNo = 1;
+
+    @BeforeEach
+    void cleanAggregates() {
+        jdbcTemplate.update("DELETE FROM product_daily_sales");
+        jdbcTemplate.update("DELETE FROM user_daily_sales");
+    }
+
+    @Test
+    void testRecordAccumulatesPerProductAndUser() {
+        salesAggregateJdbcRepository.record(order(1L, line(1L, 2, Money.ofMajor(10)), line(2L, 1, Money.ofMajor(5)), line(1L, 1, Money.ofMajor(10))), DAY);
+        salesAggregateJdbcRepository.record(order(2L, line(1L, 4, Money.ofMajor(10))), DAY);
+        salesAggregateJdbcRepository.record(order(2L, line(2L, 1, Money.ofMajor(5))), DAY.plusDays(1));
+
+        List<SalesTotal> byProduct = salesAggregateJdbcRepository.totalsByProduct(DAY, DAY.plusDays(1));
+        assertEquals(List.of(1L, 2L), byProduct.stream().map(SalesTotal::getProductId).collect(Collectors.toList()));
+        assertTotal(byProduct.get(0), 7, Money.ofMajor(70), 2);
+        assertTotal(byProduct.get(1), 2, Money.ofMajor(10), 2);
+
+        List<SalesTotal> byUser = salesAggregateJdbcRepository.totalsByUser(DAY, DAY);
+        assertEquals(2, byUser.size());
+        assertTotal(byUser.get(0), 4, Money.ofMajor(40), 1);
+        assertTotal(byUser.get(1), 4, Money.ofMajor(35), 1);
+
+        List<SalesTotal> byDay = salesAggregateJdbcRepository.totalsByDay(DAY, DAY.plusDays(1));
+        assertEquals(List.of(DAY, DAY.plusDays(1)), byDay.stream().map(SalesTotal::getDay).collect(Collectors.toList()));
+        assertTotal(byDay.get(0), 8, Money.ofMajor(75), 2);
+        assertTotal(byDay.get(1), 1, Money.ofMajor(5), 1);
+    }
+
+    @Test
+    void testRebuildMatchesIncrementalCounters() {
+        long user = 2L;
+        long paid = insertOrder(user, Status.PAID, 45.0);
+        insertLine(paid, 1L, 2, 10.0);
+        insertLine(paid, 2L, 5, 5.0);
+        long unpaid = insertOrder(user, Status.NOT_PAID, 10.0);
+        insertLine(unpaid, 1L, 1, 10.0);
+
+        salesAggregateJdbcRepository.rebuild();
+
+        List<SalesTotal> byProduct = salesAggregateJdbcRepository.totalsByProduct(DAY, DAY);
+        assertEquals(2, byProduct.size());
+        assertTotal(byProduct.get(0), 5, Money.ofMajor(25), 1);
+        assertTotal(byProduct.get(1), 2, Money.ofMajor(20), 1);
+        List<SalesTotal> byUser = salesAggregateJdbcRepository.totalsByUser(DAY, DAY);
+        assertEquals(1, byUser.size());
+        assertEquals(user, byUser.get(0).getUserId());
+        assertTotal(byUser.get(0), 7, Money.ofMajor(45), 1);
+        assertTrue(salesAggregateJdbcRepository.totalsByDay(DAY.plusDays(1), DAY.plusDays(7)).isEmpty());
+    }
+
+    private static void assertTotal(SalesTotal total, long units, long revenue, long orders) {
+        assertEquals(units, total.getUnits());
+        assertEquals(revenue, total.getRevenue());
+        assertEquals(orders, total.getOrders());
+    }
+
+    private Order order(long userId, OrderedProduct... lines) {
+        User user = new User();
+        user.setId(userId);
+        Order order = new Order();
+        order.setUser(user);
+        order.setOrderedProducts(List.of(lines));
+        order.setSum(List.of(lines).stream().mapToLong(line -> Money.times(line.getPrice(), line.getAmount())).sum());
+        return order;
+    }
+
+    private OrderedProduct line(long productId, long amount, long price) {
+        return new OrderedProduct(productId, "Product " + productId, amount, price);
+    }
+
+    private long insertOrder(long userId, Status status, double sum) {
+        jdbcTemplate.update("INSERT INTO orders (id, local_date_time, paid_at, user_id, sum, status, version)"
+                        + " VALUES (nextval('order_sequence'), ?, ?, ?, ?, ?, 0)",
+                Timestamp.valueOf(DAY.minusDays(1).atTime(23, 55)),
+                status == Status.PAID ? Timestamp.valueOf(DAY.atTime(0, 5)) : null, userId, sum, status.ordinal());
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM orders", Long.class);
+    }
+
+    private void insertLine(long orderId, long productId, long amount, double price) {
+        jdbcTemplate.update("INSERT INTO order_lines (order_id, line_no, product_id, name, quantity, price)"
+                + " VALUES (?, ?, ?, 'Product', ?, ?)", orderId, nextLineNo++, productId, amount, price);
+    }
+}
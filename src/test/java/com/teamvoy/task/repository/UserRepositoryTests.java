@@ -0,0 +1,57 @@
+package com.teamvoy.task.repository;
+
+import com.teamvoy.task.money.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The seed data gives user 2 a balance of 2000.00.
+@DataJpaTest
+public class UserRepositoryTests {
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void testDebitTakesTheExactAmount() {
+        assertEquals(1, userRepository.debit(2L, Money.parse("300.45")));
+
+        assertEquals(Money.parse("1699.55"), balanceOf(2L));
+    }
+
+    @Test
+    void testDebitBeyondTheBalanceIsRejected() {
+        long versionBefore = userRepository.findById(2L).orElseThrow().getVersion();
+
+        assertEquals(0, userRepository.debit(2L, Money.parse("2000.01")));
+
+        assertEquals(Money.ofMajor(2000), balanceOf(2L));
+        assertEquals(versionBefore, userRepository.findById(2L).orElseThrow().getVersion());
+    }
+
+    @Test
+    void testDebitOfTheWholeBalanceIsAllowed() {
+        assertEquals(1, userRepository.debit(2L, Money.ofMajor(2000)));
+
+        assertEquals(0, balanceOf(2L));
+    }
+
+    @Test
+    void testCreditGivesBackTheExactAmount() {
+        userRepository.debit(2L, Money.parse("0.07"));
+
+        assertEquals(1, userRepository.credit(2L, Money.parse("0.07")));
+
+        assertEquals(Money.ofMajor(2000), balanceOf(2L));
+    }
+
+    private long balanceOf(long userId) {
+        entityManager.clear();
+        return userRepository.findById(userId).orElseThrow().getBalance();
+    }
+}
@@ -0,0 +1,78 @@
+package com.teamvoy.task.retry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RetryOnConflictAspectTests {
+
+    private RetryOnConflictAspect aspect;
+    private FlakyService service;
+
+    @BeforeEach
+    void setUp() {
+        aspect = new RetryOnConflictAspect(3, 1, 2);
+        AspectJProxyFactory factory = new AspectJProxyFactory(new FlakyService());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        service = factory.getProxy();
+    }
+
+    @Test
+    void testRetriesUntilSuccess() {
+        assertEquals("done", service.failTimes(2));
+
+        Map<String, Long> counters = aspect.stats().get("FlakyService.failTimes");
+        assertEquals(1, counters.get("calls"));
+        assertEquals(2, counters.get("conflicts"));
+        assertEquals(2, counters.get("retries"));
+        assertEquals(0, counters.get("exhausted"));
+    }
+
+    @Test
+    void testGivesUpAfterMaxAttempts() {
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> service.failTimes(5));
+
+        Map<String, Long> counters = aspect.stats().get("FlakyService.failTimes");
+        assertEquals(3, counters.get("conflicts"));
+        assertEquals(1, counters.get("exhausted"));
+    }
+
+    @Test
+    void testOtherExceptionsAreNotRetried() {
+        assertThrows(IllegalStateException.class, () -> service.broken());
+
+        assertEquals(0, aspect.stats().get("FlakyService.broken").get("retries"));
+    }
+
+    @Test
+    void testBackoffStaysUnderCap() {
+        RetryOnConflictAspect capped = new RetryOnConflictAspect(10, 10, 50);
+        for (int attempt = 1; attempt < 10; attempt++) {
+            long pause = capped.backoff(attempt);
+            assertTrue(pause >= 0 && pause <= 50);
+        }
+    }
+
+    public static class FlakyService {
+        private int calls;
+
+        @RetryOnConflict
+        public String failTimes(int failures) {
+            if (calls++ < failures) {
+                throw new ObjectOptimisticLockingFailureException(Object.class, 1L);
+            }
+            return "done";
+        }
+
+        @RetryOnConflict
+        public String broken() {
+            throw new IllegalStateException("broken");
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.teamvoy.task.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teamvoy.task.model.Order;
+import com.teamvoy.task.model.OrderView;
+import com.teamvoy.task.model.Product;
+import com.teamvoy.task.model.Role;
+import com.teamvoy.task.model.Status;
+import com.teamvoy.task.model.User;
+import com.teamvoy.task.repository.OrderViewRepository;
+import com.teamvoy.task.repository.ProductRepository;
+import com.teamvoy.task.repository.UserRepository;
+import com.teamvoy.task.service.impl.ExportServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ExportServiceTests {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private OrderViewRepository orderViewRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private ExportServiceImpl exportService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        exportService = new ExportServiceImpl(productRepository, userRepository, orderViewRepository, transactionManager, new ObjectMapper());
+        ReflectionTestUtils.setField(exportService, "entityManager", entityManager);
+    }
+
+    @Test
+    void testExportProductsWritesOneLinePerRow() throws Exception {
+        when(productRepository.streamAll()).thenReturn(Stream.of(
+                new Product(1L, "Laptop", 10, 1000),
+                new Product(2L, "Phone", 5, 500)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = exportService.exportProducts(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, written);
+        assertEquals(2, lines.length);
+        assertEquals("Laptop", new ObjectMapper().readTree(lines[0]).get("name").asText());
+        assertEquals(2, new ObjectMapper().readTree(lines[1]).get("id").asLong());
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void testExportUsersMapsToResponse() throws Exception {
+        Role role = new Role();
+        role.setName("CLIENT");
+        User user = new User();
+        user.setId(4L);
+        user.setEmail("client@mail.com");
+        user.setPassword("Secret1");
+        user.setRole(role);
+        when(userRepository.streamAll()).thenReturn(Stream.of(user));
+        Order order = new Order();
+        order.setId(8L);
+        order.setUser(user);
+        order.setStatus(Status.PAID);
+        order.setOrderedProducts(List.of());
+        when(orderViewRepository.findByUserIdInOrderByOrderIdAsc(List.of(4L))).thenReturn(List.of(OrderView.of(order)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.exportUsers(out);
+
+        String line = out.toString(StandardCharsets.UTF_8).trim();
+        assertEquals("CLIENT", new ObjectMapper().readTree(line).get("role").asText());
+        assertEquals(8, new ObjectMapper().readTree(line).get("userOrders").get(0).get("id").asLong());
+        assertFalse(line.contains("Secret1"));
+    }
+
+    @Test
+    void testExportUsersLoadsViewsOncePerChunk() throws Exception {
+        Role role = new Role();
+        role.setName("CLIENT");
+        User first = new User();
+        first.setId(1L);
+        first.setRole(role);
+        User second = new User();
+        second.setId(2L);
+        second.setRole(role);
+        when(userRepository.streamAll()).thenReturn(Stream.of(first, second));
+        Order order = new Order();
+        order.setId(9L);
+        order.setUser(second);
+        order.setOrderedProducts(List.of());
+        when(orderViewRepository.findByUserIdInOrderByOrderIdAsc(List.of(1L, 2L))).thenReturn(List.of(OrderView.of(order)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(2, exportService.exportUsers(out));
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(0, new ObjectMapper().readTree(lines[0]).get("userOrders").size());
+        assertEquals(9, new ObjectMapper().readTree(lines[1]).get("userOrders").get(0).get("id").asLong());
+        verify(orderViewRepository, times(1)).findByUserIdInOrderByOrderIdAsc(anyCollection());
+        verify(orderViewRepository, never()).findByUserIdOrderByOrderIdAsc(anyLong());
+    }
+
+    @Test
+    void testExportOrdersRunsOneQueryForAllRows() throws Exception {
+        User user = new User();
+        user.setId(3L);
+        List<OrderView> views = new ArrayList<>();
+        for (long id = 1; id <= 1200; id++) {
+            Order order = new Order();
+            order.setId(id);
+            order.setUser(user);
+            order.setStatus(Status.NOT_PAID);
+            order.setOrderedProducts(List.of());
+            views.add(OrderView.of(order));
+        }
+        when(orderViewRepository.streamAll()).thenReturn(views.stream());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(1200, exportService.exportOrders(out));
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(1200, new ObjectMapper().readTree(lines[1199]).get("id").asLong());
+        verify(orderViewRepository, times(1)).streamAll();
+        verifyNoMoreInteractions(orderViewRepository);
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    void testEmptyTableWritesNothing() {
+        when(orderViewRepository.streamAll()).thenReturn(Stream.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(0, exportService.exportOrders(out));
+        assertEquals(0, out.size());
+        verify(entityManager, never()).clear();
+    }
+}
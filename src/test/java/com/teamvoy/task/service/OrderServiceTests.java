@@ -1,23 +1,40 @@
 package com.teamvoy.task.service;
 
 import com.teamvoy.task.dto.order.OrderRequest;
+import com.teamvoy.task.dto.order.PaymentResult;
 import com.teamvoy.task.exception.EntityNotFoundException;
+import com.teamvoy.task.exception.NotEnoughAmountException;
+import com.teamvoy.task.exception.NotEnoughBalanceException;
 import com.teamvoy.task.exception.NullEntityReferenceException;
+import com.teamvoy.task.exception.OrderNotPayableException;
+import com.teamvoy.task.inventory.InventoryEngine;
 import com.teamvoy.task.model.*;
+import com.teamvoy.task.money.Money;
 import com.teamvoy.task.repository.OrderRepository;
+import com.teamvoy.task.repository.OrderViewRepository;
+import com.teamvoy.task.repository.ProductJdbcRepository;
 import com.teamvoy.task.repository.OrderedProductRepository;
 import com.teamvoy.task.repository.ProductRepository;
+import com.teamvoy.task.repository.SalesAggregateJdbcRepository;
+import com.teamvoy.task.repository.UserRepository;
 import com.teamvoy.task.service.impl.OrderServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -30,15 +47,37 @@ public class OrderServiceTests {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ProductJdbcRepository productJdbcRepository;
+
     @Mock
     private OrderedProductRepository orderedProductRepository;
 
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private InventoryEngine inventoryEngine;
+
+    @Mock
+    private SalesAggregateJdbcRepository salesAggregateJdbcRepository;
+
+    @Mock
+    private OrderViewRepository orderViewRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private OrderServiceImpl orderService;
 
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(orderService, "entityManager", entityManager);
     }
 
     @Test
@@ -52,6 +91,22 @@ public class OrderServiceTests {
         verify(orderRepository).save(order);
     }
 
+    @Test
+    public void testCreateOrderKeysLinesByOrderAndInsertsThemInOneCall() {
+        Order order = new Order();
+        order.setId(7L);
+        order.setOrderedProducts(List.of(new OrderedProduct(3L, "A", 1, Money.ofMajor(1)),
+                new OrderedProduct(1L, "B", 2, Money.ofMajor(2))));
+        when(orderRepository.save(order)).thenReturn(order);
+
+        orderService.create(order);
+
+        assertEquals(List.of(new OrderedProduct.Key(7L, 1), new OrderedProduct.Key(7L, 2)), order.getOrderedProducts().stream()
+                .map(OrderedProduct::getId).collect(Collectors.toList()));
+        verify(orderedProductRepository).insertAll(order.getOrderedProducts());
+        verify(orderedProductRepository, never()).saveAll(any());
+    }
+
     @Test
     public void testCreateOrderWithNull() {
         assertThrows(NullEntityReferenceException.class, () -> orderService.create(null));
@@ -84,24 +139,88 @@ public class OrderServiceTests {
         product.setId(1L);
         product.setName("Test Product");
         product.setAmount(10);
-        product.setPrice(100.0);
+        product.setPrice(Money.ofMajor(100));
 
         OrderRequest orderRequest = new OrderRequest();
         orderRequest.setProductId(1L);
         orderRequest.setAmount(5);
 
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productJdbcRepository.subtractAmounts(Map.of(1L, 5L))).thenReturn(Set.of());
+        when(productJdbcRepository.findAllById(Set.of(1L))).thenReturn(List.of(product));
 
         Order resultOrder = orderService.prepareOrder(Arrays.asList(orderRequest), user);
 
         assertNotNull(resultOrder);
         assertEquals(Status.NOT_PAID, resultOrder.getStatus());
         assertFalse(resultOrder.getOrderedProducts().isEmpty());
-        assertEquals(500.0, resultOrder.getSum());
+        assertEquals(Money.ofMajor(500), resultOrder.getSum());
+        assertEquals(1L, resultOrder.getOrderedProducts().get(0).getProductId());
+        assertNull(resultOrder.getOrderedProducts().get(0).getId());
+
+        verify(productJdbcRepository).subtractAmounts(Map.of(1L, 5L));
+        verifyNoInteractions(orderedProductRepository);
+        verify(productRepository, never()).findById(anyLong());
+        verify(productRepository, never()).saveAll(any());
+    }
+
+    @Test
+    public void testPrepareOrderMergesLinesForSameProduct() {
+        when(productJdbcRepository.subtractAmounts(Map.of(1L, 5L, 2L, 1L))).thenReturn(Set.of());
+        when(productJdbcRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(
+                new Product(1L, "A", 10, Money.ofMajor(2)), new Product(2L, "B", 10, Money.ofMajor(3))));
+
+        Order resultOrder = orderService.prepareOrder(List.of(
+                new OrderRequest(1L, 2), new OrderRequest(2L, 1), new OrderRequest(1L, 3)), new User());
+
+        assertEquals(3, resultOrder.getOrderedProducts().size());
+        assertEquals(Money.ofMajor(13), resultOrder.getSum());
+    }
+
+    @Test
+    public void testPrepareOrderSumIsExactInMinorUnits() {
+        when(productJdbcRepository.subtractAmounts(Map.of(1L, 3L, 2L, 1L))).thenReturn(Set.of());
+        when(productJdbcRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(
+                new Product(1L, "A", 10, Money.parse("0.10")), new Product(2L, "B", 10, Money.parse("0.20"))));
+
+        Order resultOrder = orderService.prepareOrder(List.of(new OrderRequest(1L, 3), new OrderRequest(2L, 1)), new User());
+
+        assertEquals(50, resultOrder.getSum());
+    }
+
+    @Test
+    public void testPrepareOrderFailsOnShortfall() {
+        when(productJdbcRepository.subtractAmounts(Map.of(1L, 2L, 2L, 3L))).thenReturn(Set.of(2L));
+        when(productJdbcRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(
+                new Product(1L, "A", 8, Money.ofMajor(1)), new Product(2L, "B", 1, Money.ofMajor(1))));
+
+        NotEnoughAmountException e = assertThrows(NotEnoughAmountException.class, () -> orderService.prepareOrder(
+                List.of(new OrderRequest(1L, 2), new OrderRequest(2L, 3)), new User()));
+
+        assertTrue(e.getMessage().contains("B"));
+        verify(productJdbcRepository).addAmounts(Map.of(1L, 2L));
+        verify(orderedProductRepository, never()).insertAll(any());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void testPlaceOrderPreparesAndSaves() {
+        Order saved = new Order();
+        saved.setId(3L);
+        when(productJdbcRepository.subtractAmounts(Map.of(1L, 1L))).thenReturn(Set.of());
+        when(productJdbcRepository.findAllById(Set.of(1L))).thenReturn(List.of(new Product(1L, "A", 4, Money.ofMajor(2))));
+        when(orderRepository.save(any(Order.class))).thenReturn(saved);
+
+        assertEquals(saved, orderService.placeOrder(List.of(new OrderRequest(1L, 1)), new User()));
+        verify(orderRepository).save(argThat(order -> order.getSum() == Money.ofMajor(2)));
+    }
+
+    @Test
+    public void testPrepareOrderFailsOnUnknownProduct() {
+        when(productJdbcRepository.subtractAmounts(Map.of(7L, 1L))).thenReturn(Set.of(7L));
+        when(productJdbcRepository.findAllById(Set.of(7L))).thenReturn(List.of());
 
-        verify(productRepository).findById(1L);
-        verify(orderedProductRepository).saveAll(any());
-        verify(productRepository).saveAll(any());
+        assertThrows(EntityNotFoundException.class, () -> orderService.prepareOrder(
+                List.of(new OrderRequest(7L, 1)), new User()));
     }
 
     @Test
@@ -110,34 +229,85 @@ public class OrderServiceTests {
         Order existingOrder = new Order();
         existingOrder.setId(orderId);
         existingOrder.setStatus(Status.NOT_PAID);
-        existingOrder.setSum(250);
+        existingOrder.setSum(Money.ofMajor(250));
         List<OrderedProduct> orderedProducts = new ArrayList<>();
-        orderedProducts.add(new OrderedProduct(1l, "Product", 10, 25.0));
+        orderedProducts.add(line(orderId, 1, 1L, "Product", 10, Money.ofMajor(25)));
         existingOrder.setOrderedProducts(orderedProducts);
 
         Product product = new Product();
         product.setId(1L);
         product.setAmount(10);
-        product.setPrice(40.0);
+        product.setPrice(Money.ofMajor(40));
 
         OrderRequest orderRequest = new OrderRequest();
         orderRequest.setProductId(1L);
         orderRequest.setAmount(5);
 
         when(orderRepository.findById(orderId)).thenReturn(Optional.of(existingOrder));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productJdbcRepository.findAllById(Set.of(1L))).thenReturn(List.of(product));
 
-        assertEquals(250, existingOrder.getSum());
+        assertEquals(Money.ofMajor(250), existingOrder.getSum());
         assertEquals(10, existingOrder.getOrderedProducts().get(0).getAmount());
         orderService.prepareOrderForUpdate(orderId, Arrays.asList(orderRequest));
 
-        assertEquals(200, existingOrder.getSum());
+        assertEquals(Money.ofMajor(200), existingOrder.getSum());
         assertEquals(5, existingOrder.getOrderedProducts().get(0).getAmount());
 
         assertNotNull(existingOrder);
+        verify(productJdbcRepository).addAmounts(Map.of(1L, 5L));
+        verify(productJdbcRepository, never()).subtractAmounts(any());
+        verify(productRepository, never()).findById(anyLong());
         verify(orderRepository).save(any(Order.class));
     }
 
+    @Test
+    public void testPrepareOrderForUpdateWritesOnlyTheDiff() {
+        OrderedProduct kept = line(1L, 1, 1L, "Kept", 2, Money.ofMajor(10));
+        OrderedProduct dropped = line(1L, 2, 2L, "Dropped", 3, Money.ofMajor(5));
+        Order existingOrder = new Order();
+        existingOrder.setId(1L);
+        existingOrder.setStatus(Status.NOT_PAID);
+        existingOrder.setSum(Money.ofMajor(35));
+        existingOrder.setOrderedProducts(new ArrayList<>(List.of(kept, dropped)));
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(existingOrder));
+        when(orderRepository.save(existingOrder)).thenReturn(existingOrder);
+        when(productJdbcRepository.findAllById(Set.of(3L))).thenReturn(List.of(new Product(3L, "Added", 10, Money.ofMajor(7))));
+        when(productJdbcRepository.subtractAmounts(Map.of(3L, 4L))).thenReturn(Set.of());
+
+        orderService.prepareOrderForUpdate(1L, List.of(new OrderRequest(1L, 2), new OrderRequest(3L, 4)));
+
+        assertEquals(Money.ofMajor(48), existingOrder.getSum());
+        assertEquals(List.of(1L, 3L), existingOrder.getOrderedProducts().stream()
+                .map(OrderedProduct::getProductId).collect(Collectors.toList()));
+        verify(productJdbcRepository).addAmounts(Map.of(2L, 3L));
+        verify(orderedProductRepository).insertAll(argThat((List<OrderedProduct> lines) -> lines.size() == 1
+                && lines.get(0).getProductId() == 3L && lines.get(0).getId().equals(new OrderedProduct.Key(1L, 3))));
+        verify(orderedProductRepository, never()).saveAll(any());
+        verify(orderedProductRepository).deleteAll(List.of(dropped));
+        verify(orderViewRepository).save(argThat((OrderView view) -> view.getOrderId() == 1L && view.getSum() == Money.ofMajor(48)
+                && view.lines().size() == 2));
+    }
+
+    @Test
+    public void testPrepareOrderForUpdateShortfallGivesBackAppliedIncreases() {
+        Order existingOrder = new Order();
+        existingOrder.setId(1L);
+        existingOrder.setStatus(Status.NOT_PAID);
+        existingOrder.setOrderedProducts(new ArrayList<>(List.of(line(1L, 1, 1L, "A", 1, Money.ofMajor(1)))));
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(existingOrder));
+        when(productJdbcRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(
+                new Product(1L, "A", 10, Money.ofMajor(1)), new Product(2L, "B", 0, Money.ofMajor(1))));
+        when(productJdbcRepository.subtractAmounts(Map.of(1L, 2L, 2L, 1L))).thenReturn(Set.of(2L));
+
+        NotEnoughAmountException e = assertThrows(NotEnoughAmountException.class, () -> orderService.prepareOrderForUpdate(
+                1L, List.of(new OrderRequest(1L, 3), new OrderRequest(2L, 1))));
+
+        assertTrue(e.getMessage().contains("B"));
+        verify(productJdbcRepository).addAmounts(Map.of(1L, 2L));
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(orderedProductRepository, never()).insertAll(any());
+    }
+
     @Test
     public void testPrepareOrderForUpdateWithInvalidOrderId() {
         long invalidOrderId = 99L;
@@ -152,4 +322,107 @@ public class OrderServiceTests {
         verify(orderedProductRepository, never()).save(any());
     }
 
+    @Test
+    public void testPrepareOrderReservesThroughInventoryEngine() {
+        Product product = new Product(1L, "Test Product", 10, Money.ofMajor(100));
+        when(inventoryEngine.isEnabled()).thenReturn(true);
+        when(inventoryEngine.tryReserve(1L, 5)).thenReturn(true);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+
+        Order resultOrder = orderService.prepareOrder(List.of(new OrderRequest(1L, 5)), new User());
+
+        assertEquals(Money.ofMajor(500), resultOrder.getSum());
+        assertEquals(10, product.getAmount());
+        verify(productRepository, never()).saveAll(any());
+    }
+
+    @Test
+    public void testPrepareOrderReleasesReservationsWhenLaterLineFails() {
+        when(inventoryEngine.isEnabled()).thenReturn(true);
+        when(inventoryEngine.tryReserve(1L, 2)).thenReturn(true);
+        when(inventoryEngine.tryReserve(2L, 3)).thenReturn(false);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(new Product(1L, "A", 10, Money.ofMajor(1))));
+        when(productRepository.findById(2L)).thenReturn(Optional.of(new Product(2L, "B", 1, Money.ofMajor(1))));
+
+        assertThrows(NotEnoughAmountException.class, () -> orderService.prepareOrder(
+                List.of(new OrderRequest(1L, 2), new OrderRequest(2L, 3)), new User()));
+
+        verify(inventoryEngine).release(1L, 2);
+        verifyNoInteractions(orderedProductRepository);
+    }
+
+    @Test
+    public void testPaidTheOrderDebitsAndMarksPaid() {
+        Order order = unpaidOrder(1L, 2L, Money.ofMajor(300));
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(userRepository.debit(2L, Money.ofMajor(300))).thenReturn(1);
+        when(orderRepository.markPaid(eq(1L), any(LocalDateTime.class))).thenReturn(1);
+
+        orderService.paidTheOrder(1L);
+
+        assertEquals(Status.PAID, order.getStatus());
+        assertNotNull(order.getPaidAt());
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(userRepository, never()).credit(anyLong(), anyLong());
+        verify(salesAggregateJdbcRepository).record(order, order.getPaidAt().toLocalDate());
+        verify(orderViewRepository).markPaid(1L);
+    }
+
+    @Test
+    public void testPaidTheOrderWithoutBalanceLeavesOrderUnpaid() {
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(unpaidOrder(1L, 2L, Money.ofMajor(300))));
+        when(userRepository.debit(2L, Money.ofMajor(300))).thenReturn(0);
+
+        assertThrows(NotEnoughBalanceException.class, () -> orderService.paidTheOrder(1L));
+
+        verify(orderRepository, never()).markPaid(anyLong(), any(LocalDateTime.class));
+    }
+
+    @Test
+    public void testPaidTheOrderRefundsWhenOrderWasPaidMeanwhile() {
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(unpaidOrder(1L, 2L, Money.ofMajor(300))));
+        when(userRepository.debit(2L, Money.ofMajor(300))).thenReturn(1);
+        when(orderRepository.markPaid(eq(1L), any(LocalDateTime.class))).thenReturn(0);
+
+        assertThrows(OrderNotPayableException.class, () -> orderService.paidTheOrder(1L));
+
+        verify(userRepository).credit(2L, Money.ofMajor(300));
+        verify(salesAggregateJdbcRepository, never()).record(any(Order.class), any());
+        verify(orderViewRepository, never()).markPaid(anyLong());
+    }
+
+    @Test
+    public void testPayOrdersReportsEachOrder() {
+        Order paid = unpaidOrder(1L, 2L, Money.ofMajor(100));
+        Order tooExpensive = unpaidOrder(2L, 2L, Money.ofMajor(5000));
+        Order foreign = unpaidOrder(3L, 9L, Money.ofMajor(10));
+        when(orderRepository.findAllById(List.of(1L, 2L, 3L))).thenReturn(List.of(paid, tooExpensive, foreign));
+        when(userRepository.debit(2L, Money.ofMajor(100))).thenReturn(1);
+        when(userRepository.debit(2L, Money.ofMajor(5000))).thenReturn(0);
+        when(orderRepository.markPaid(eq(1L), any(LocalDateTime.class))).thenReturn(1);
+
+        List<PaymentResult> results = orderService.payOrders(2L, List.of(1L, 2L, 3L));
+
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).isPaid());
+        assertFalse(results.get(1).isPaid());
+        assertFalse(results.get(2).isPaid());
+        verify(userRepository, never()).debit(eq(9L), anyLong());
+        verify(orderRepository, times(1)).markPaid(anyLong(), any(LocalDateTime.class));
+    }
+
+    private static OrderedProduct line(long orderId, int lineNo, long productId, String name, long amount, long price) {
+        return new OrderedProduct(new OrderedProduct.Key(orderId, lineNo), productId, name, amount, price);
+    }
+
+    private static Order unpaidOrder(long id, long userId, long sum) {
+        User user = new User();
+        user.setId(userId);
+        Order order = new Order();
+        order.setId(id);
+        order.setUser(user);
+        order.setSum(sum);
+        order.setStatus(Status.NOT_PAID);
+        return order;
+    }
 }
@@ -0,0 +1,116 @@
+package com.teamvoy.task.service;
+
+import com.teamvoy.task.dto.order.OrderSearchQuery;
+import com.teamvoy.task.dto.page.CursorPage;
+import com.teamvoy.task.exception.EntityNotFoundException;
+import com.teamvoy.task.model.*;
+import com.teamvoy.task.repository.OrderRepository;
+import com.teamvoy.task.repository.OrderViewRepository;
+import com.teamvoy.task.service.impl.OrderViewServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class OrderViewServiceTests {
+
+    @Mock
+    private OrderViewRepository orderViewRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @InjectMocks
+    private OrderViewServiceImpl orderViewService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    public void testViewCarriesUserSummaryAndLines() {
+        OrderView view = view(1L, 2L, 3000);
+
+        assertEquals(2L, view.getUserId());
+        assertEquals("Ann", view.getUserFirstName());
+        assertEquals("CLIENT", view.getUserRole());
+        List<OrderedProduct> lines = view.lines();
+        assertEquals(1, lines.size());
+        assertEquals(5L, lines.get(0).getProductId());
+        assertEquals(3, lines.get(0).getAmount());
+        assertEquals(1099, lines.get(0).getPrice());
+    }
+
+    @Test
+    public void testReadByIdWithInvalidId() {
+        when(orderViewRepository.findById(9L)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> orderViewService.readById(9L));
+    }
+
+    @Test
+    public void testSearchKeepsIndexOrderAndSetsCursor() {
+        OrderSearchQuery query = new OrderSearchQuery();
+        query.setSort("-sum");
+        when(orderRepository.searchIds(query, 3)).thenReturn(List.of(3L, 1L, 2L));
+        when(orderViewRepository.findAllById(List.of(3L, 1L))).thenReturn(List.of(view(1L, 2L, 2000), view(3L, 2L, 5000)));
+
+        CursorPage<OrderView> page = orderViewService.search(query, 2);
+
+        assertEquals(List.of(3L, 1L), page.getItems().stream().map(OrderView::getOrderId).collect(Collectors.toList()));
+        assertEquals("2000:1", page.getNextCursor());
+        verify(orderRepository, never()).search(any(), anyInt());
+    }
+
+    @Test
+    public void testSearchLastPageHasNoCursor() {
+        OrderSearchQuery query = new OrderSearchQuery();
+        when(orderRepository.searchIds(query, 3)).thenReturn(List.of(4L));
+        when(orderViewRepository.findAllById(List.of(4L))).thenReturn(List.of(view(4L, 2L, 1000)));
+
+        CursorPage<OrderView> page = orderViewService.search(query, 2);
+
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void testFindByUserIdsGroupsViews() {
+        when(orderViewRepository.findByUserIdInOrderByOrderIdAsc(List.of(2L, 7L)))
+                .thenReturn(List.of(view(1L, 2L, 100), view(2L, 7L, 100), view(3L, 2L, 100)));
+
+        Map<Long, List<OrderView>> byUser = orderViewService.findByUserIds(List.of(2L, 7L));
+
+        assertEquals(2, byUser.get(2L).size());
+        assertEquals(1, byUser.get(7L).size());
+        assertTrue(orderViewService.findByUserIds(List.of()).isEmpty());
+    }
+
+    private static OrderView view(long orderId, long userId, long sum) {
+        Role role = new Role();
+        role.setName("CLIENT");
+        User user = new User();
+        user.setId(userId);
+        user.setFirstName("Ann");
+        user.setRole(role);
+        Order order = new Order();
+        order.setId(orderId);
+        order.setUser(user);
+        order.setSum(sum);
+        order.setStatus(Status.NOT_PAID);
+        order.setLocalDateTime(LocalDateTime.of(2026, 1, 1, 0, 0));
+        order.setOrderedProducts(List.of(new OrderedProduct(new OrderedProduct.Key(orderId, 1), 5L, "Product", 3, 1099)));
+        return OrderView.of(order);
+    }
+}
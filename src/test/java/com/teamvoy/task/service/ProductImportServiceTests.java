@@ -0,0 +1,112 @@
+package com.teamvoy.task.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teamvoy.task.dto.goodsDto.ImportReport;
+import com.teamvoy.task.event.ProductChangedEvent;
+import com.teamvoy.task.model.Product;
+import com.teamvoy.task.repository.ProductJdbcRepository;
+import com.teamvoy.task.repository.ProductRepository;
+import com.teamvoy.task.service.impl.ProductImportServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ProductImportServiceTests {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductJdbcRepository productJdbcRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private ProductImportServiceImpl importService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        importService = new ProductImportServiceImpl(productRepository, productJdbcRepository, transactionTemplate,
+                eventPublisher, new ObjectMapper(), 2);
+        ReflectionTestUtils.setField(importService, "entityManager", entityManager);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCsvImportMergesIntoExistingAndInsertsNew() throws Exception {
+        Product existing = new Product(1L, "Laptop", 5, 1000);
+        when(productRepository.findByNormalizedNameIn(anyCollection())).thenReturn(List.of(existing));
+
+        ImportReport report = importService.importCsv(new StringReader(
+                "name,amount,price\n laptop ,3,1200\nMouse,10,20\n"));
+
+        assertEquals(2, report.getRows());
+        assertEquals(1, report.getCreated());
+        assertEquals(1, report.getMerged());
+        assertEquals(0, report.getFailed());
+
+        ArgumentCaptor<Map<Long, Long>> increments = ArgumentCaptor.forClass(Map.class);
+        verify(productJdbcRepository).addAmounts(increments.capture());
+        assertEquals(Map.of(1L, 3L), increments.getValue());
+
+        ArgumentCaptor<List<Product>> inserts = ArgumentCaptor.forClass(List.class);
+        verify(productJdbcRepository).insertAll(inserts.capture());
+        assertEquals("Mouse", inserts.getValue().get(0).getName());
+        verify(eventPublisher).publishEvent(any(ProductChangedEvent.class));
+    }
+
+    @Test
+    void testNdjsonImportReportsBadRowsAndKeepsGoing() throws Exception {
+        ImportReport report = importService.importNdjson(new StringReader(
+                "{\"name\":\"Mouse\",\"amount\":1,\"price\":20}\n" +
+                        "{not json}\n" +
+                        "{\"name\":\"\",\"amount\":1,\"price\":20}\n" +
+                        "{\"name\":\"Pad\",\"amount\":-1,\"price\":5}\n"));
+
+        assertEquals(4, report.getRows());
+        assertEquals(1, report.getCreated());
+        assertEquals(3, report.getFailed());
+        assertEquals(List.of(2L, 3L, 4L), report.getErrors().stream().map(ImportReport.RowError::getLine).collect(Collectors.toList()));
+    }
+
+    @Test
+    void testRowsAreFlushedInChunks() throws Exception {
+        importService.importCsv(new StringReader("A,1,1\nB,1,1\nC,1,1\n"));
+
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(productJdbcRepository, times(2)).insertAll(anyList());
+    }
+
+    @Test
+    void testQuotedCsvFields() throws Exception {
+        ImportReport report = importService.importCsv(new StringReader("\"Cable, USB-C \"\"2m\"\"\",4,9.5\n"));
+
+        assertEquals(1, report.getCreated());
+        verify(productRepository, atLeastOnce()).findByNormalizedNameIn(argThat(names -> names.contains("cable, usb-c \"2m\"")));
+    }
+}
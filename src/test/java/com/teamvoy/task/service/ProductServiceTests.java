@@ -1,5 +1,11 @@
 package com.teamvoy.task.service;
 
+import com.teamvoy.task.catalog.ProductCache;
+import com.teamvoy.task.catalog.ProductRangeIndex;
+import com.teamvoy.task.catalog.ProductSearchIndex;
+import com.teamvoy.task.dto.goodsDto.ProductRangeQuery;
+import com.teamvoy.task.dto.page.CursorPage;
+import com.teamvoy.task.event.ProductChangedEvent;
 import com.teamvoy.task.exception.EntityNotFoundException;
 import com.teamvoy.task.exception.NullEntityReferenceException;
 import com.teamvoy.task.model.Product;
@@ -10,7 +16,11 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -23,6 +33,18 @@ public class ProductServiceTests {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private ProductRangeIndex productRangeIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -86,6 +108,28 @@ public class ProductServiceTests {
         verify(productRepository, times(1)).findById(1L);
     }
 
+    @Test
+    void testReadProductByIdServedFromCache() {
+        Product cached = new Product(1L, "Laptop", 10, 10000);
+        when(productCache.get(1L)).thenReturn(cached);
+
+        Product retrievedProduct = productService.readById(1L);
+
+        assertEquals(cached, retrievedProduct);
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void testReadProductByIdPopulatesCache() {
+        Product product = new Product(1L, "Laptop", 10, 10000);
+        when(productCache.loadToken()).thenReturn(7L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+
+        productService.readById(1L);
+
+        verify(productCache).put(product, 7L);
+    }
+
     @Test
     void testReadProductByIdNotFound() {
         when(productRepository.findById(1L)).thenReturn(Optional.empty());
@@ -138,6 +182,7 @@ public class ProductServiceTests {
 
         verify(productRepository, times(1)).findById(1L);
         verify(productRepository, times(1)).delete(product);
+        verify(eventPublisher).publishEvent(any(ProductChangedEvent.class));
     }
 
     @Test
@@ -164,4 +209,64 @@ public class ProductServiceTests {
 
         verify(productRepository, times(1)).findAll();
     }
+
+    @Test
+    void testGetPageReturnsNextCursorWhenMoreRowsExist() {
+        List<Product> rows = List.of(
+                new Product(3L, "Laptop", 10, 10000),
+                new Product(4L, "Mouse", 20, 200),
+                new Product(7L, "Monitor", 5, 5000));
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(2L, PageRequest.of(0, 3))).thenReturn(rows);
+
+        CursorPage<Product> page = productService.getPage(2L, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertEquals("4", page.getNextCursor());
+    }
+
+    @Test
+    void testGetPageCapsLimit() {
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class))).thenReturn(new ArrayList<>());
+
+        CursorPage<Product> page = productService.getPage(0L, 10_000);
+
+        assertTrue(page.getItems().isEmpty());
+        assertNull(page.getNextCursor());
+        verify(productRepository).findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, CursorPage.MAX_LIMIT + 1));
+    }
+
+    @Test
+    void testSearchKeepsIndexRanking() {
+        Product laptop = new Product(1L, "Laptop", 10, 10000);
+        Product lamp = new Product(2L, "Lamp", 3, 300);
+        when(productSearchIndex.search("lap", 10)).thenReturn(List.of(2L, 1L));
+        when(productRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(laptop, lamp));
+
+        List<Product> found = productService.search("lap", 10);
+
+        assertEquals(List.of(lamp, laptop), found);
+    }
+
+    @Test
+    void testSearchWithoutMatchesSkipsRepository() {
+        when(productSearchIndex.search("zzz", 10)).thenReturn(List.of());
+
+        assertTrue(productService.search("zzz", 10).isEmpty());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void testFindInRangeKeepsIndexOrderAndCursor() {
+        ProductRangeQuery query = new ProductRangeQuery();
+        query.setMaxPrice(new BigDecimal("500"));
+        Product cheap = new Product(3L, "Pen", 100, 5);
+        Product mouse = new Product(1L, "Mouse", 4, 300);
+        when(productRangeIndex.scan(query, 2)).thenReturn(new CursorPage<>(List.of(3L, 1L), "next"));
+        when(productRepository.findAllById(List.of(3L, 1L))).thenReturn(List.of(mouse, cheap));
+
+        CursorPage<Product> page = productService.findInRange(query, 2);
+
+        assertEquals(List.of(cheap, mouse), page.getItems());
+        assertEquals("next", page.getNextCursor());
+    }
 }
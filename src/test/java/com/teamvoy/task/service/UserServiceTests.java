@@ -4,6 +4,7 @@ import com.teamvoy.task.exception.EntityNotFoundException;
 import com.teamvoy.task.exception.InvalidEmailException;
 import com.teamvoy.task.exception.NullEntityReferenceException;
 import com.teamvoy.task.model.User;
+import com.teamvoy.task.repository.OrderViewRepository;
 import com.teamvoy.task.repository.UserRepository;
 import com.teamvoy.task.service.impl.UserServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,6 +12,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -29,6 +31,12 @@ public class UserServiceTests {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private OrderViewRepository orderViewRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -126,6 +134,7 @@ public class UserServiceTests {
         verify(userRepository, times(1)).findById(1L);
         verify(passwordEncoder, times(1)).encode(any());
         verify(userRepository, times(1)).save(updatedUser);
+        verify(orderViewRepository, times(1)).updateUserSummary(1L, null, null, "test@example.com", null);
     }
 
     @Test
@@ -0,0 +1,110 @@
+package com.teamvoy.task.version;
+
+import com.teamvoy.task.event.OrderChangedEvent;
+import com.teamvoy.task.event.ProductChangedEvent;
+import com.teamvoy.task.event.UserChangedEvent;
+import com.teamvoy.task.model.Order;
+import com.teamvoy.task.model.OrderView;
+import com.teamvoy.task.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EntityVersionsTests {
+    private final EntityVersions versions = new EntityVersions(100, 60);
+
+    @Test
+    void testProductTagFollowsTheRowVersion() {
+        String first = versions.productTag(new Product(1L, "Laptop", 10, 1000, 3));
+
+        assertEquals(first, new EntityVersions(100, 60).productTag(new Product(1L, "Laptop", 10, 1000, 3)));
+        assertNotEquals(first, versions.productTag(new Product(1L, "Laptop", 9, 1000, 4)));
+        assertNotEquals(first, versions.productTag(new Product(2L, "Laptop", 10, 1000, 3)));
+    }
+
+    @Test
+    void testOrderTagFollowsTheViewVersion() {
+        Order order = new Order();
+        order.setId(5L);
+        OrderView view = OrderView.of(order);
+        String before = versions.orderTag(view);
+
+        view.setVersion(view.getVersion() + 1);
+
+        assertNotEquals(before, versions.orderTag(view));
+    }
+
+    @Test
+    void testPageTagChangesWithAnyRowOnThePage() {
+        List<Product> page = List.of(new Product(1L, "A", 1, 100, 0), new Product(2L, "B", 1, 100, 0));
+        String tag = versions.pageTag("0:20", page);
+
+        assertEquals(tag, versions.pageTag("0:20", List.of(new Product(1L, "A", 1, 100, 0), new Product(2L, "B", 1, 100, 0))));
+        assertNotEquals(tag, versions.pageTag("0:20", List.of(new Product(1L, "A", 1, 100, 0), new Product(2L, "B", 0, 100, 1))));
+        assertNotEquals(tag, versions.pageTag("0:20", List.of(new Product(1L, "A", 1, 100, 0))));
+        assertNotEquals(tag, versions.pageTag("0:10", page));
+    }
+
+    @Test
+    void testReadTagsAreRememberedUntilTheRowChanges() {
+        Product product = new Product(1L, "Laptop", 10, 1000, 3);
+        assertNull(versions.cachedProductTag(1L));
+
+        String tag = versions.productTag(product, versions.loadToken());
+
+        assertEquals(tag, versions.cachedProductTag(1L));
+        versions.onProductChanged(ProductChangedEvent.stockOf(List.of(1L)));
+        assertNull(versions.cachedProductTag(1L));
+    }
+
+    @Test
+    void testReadRacingWithAChangeIsNotRemembered() {
+        long loadToken = versions.loadToken();
+        versions.onProductChanged(ProductChangedEvent.removed(1L));
+
+        versions.productTag(new Product(1L, "Laptop", 10, 1000, 3), loadToken);
+
+        assertNull(versions.cachedProductTag(1L));
+    }
+
+    @Test
+    void testAnyProductChangeDropsPageTags() {
+        versions.pageTag("0:20", List.of(new Product(1L, "A", 1, 100, 0)), versions.loadToken());
+        assertNotNull(versions.cachedPageTag("0:20"));
+
+        versions.onProductChanged(ProductChangedEvent.stockOf(List.of(7L)));
+
+        assertNull(versions.cachedPageTag("0:20"));
+    }
+
+    @Test
+    void testOrderTagsGoWithTheOrderOrItsUser() {
+        versions.orderTag(view(5L, 1L), versions.loadToken());
+        versions.orderTag(view(6L, 2L), versions.loadToken());
+
+        versions.onOrderChanged(OrderChangedEvent.of(OrderChangedEvent.Kind.PAID, 5L));
+        assertNull(versions.cachedOrderTag(5L));
+        assertNotNull(versions.cachedOrderTag(6L));
+
+        versions.onUserChanged(new UserChangedEvent(2L));
+        assertNull(versions.cachedOrderTag(6L));
+    }
+
+    @Test
+    void testRememberedTagsExpire() {
+        EntityVersions expiring = new EntityVersions(100, 0);
+
+        expiring.productTag(new Product(1L, "Laptop", 10, 1000, 3), expiring.loadToken());
+
+        assertNull(expiring.cachedProductTag(1L));
+    }
+
+    private static OrderView view(long orderId, long userId) {
+        OrderView view = new OrderView();
+        view.setOrderId(orderId);
+        view.setUserId(userId);
+        return view;
+    }
+}